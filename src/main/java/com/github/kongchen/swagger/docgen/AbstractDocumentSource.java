@@ -1,5 +1,6 @@
 package com.github.kongchen.swagger.docgen;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
@@ -15,6 +16,7 @@ import com.github.jknack.handlebars.io.TemplateLoader;
 import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
 import com.github.kongchen.swagger.docgen.mavenplugin.SecurityDefinition;
 import com.github.kongchen.swagger.docgen.reader.AbstractReader;
+import com.github.kongchen.swagger.docgen.reader.CachingModelConverters;
 import com.github.kongchen.swagger.docgen.reader.ClassSwaggerReader;
 import com.github.kongchen.swagger.docgen.reader.ModelModifier;
 import io.swagger.annotations.Api;
@@ -52,6 +54,7 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
  * @author chekong 05/13/2013
  */
 public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwaggerReader> {
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
     protected final ApiSource apiSource;
     protected final Log LOG;
     protected final List<Type> typesToSkip = new ArrayList<Type>();
@@ -64,6 +67,9 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
     private final boolean jsonExampleValues;
     private ObjectMapper mapper = Json.mapper();
     private boolean isSorted = false;
+    private OutputDigests outputDigests = new OutputDigests(null);
+    private boolean outputChanged = false;
+    private final List<ModelConverter> modelConverters = new ArrayList<ModelConverter>();
     protected String encoding = "UTF-8";
 
     public AbstractDocumentSource(Log log, ApiSource apiSource, String encoding) throws MojoFailureException {
@@ -121,6 +127,7 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
 
     private Swagger doFilter(Swagger swagger) throws GenerateException {
         String filterClassName = apiSource.getSwaggerInternalFilter();
+        SwaggerSpecFilter previousFilter = FilterFactory.getFilter();
         if (filterClassName != null) {
             try {
                 LOG.debug(String.format("Setting filter configuration: %s", filterClassName));
@@ -130,16 +137,23 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
             }
         }
 
-        SwaggerSpecFilter filter = FilterFactory.getFilter();
-        if (filter == null) {
-            return swagger;
+        try {
+            SwaggerSpecFilter filter = FilterFactory.getFilter();
+            if (filter == null) {
+                return swagger;
+            }
+            return new SpecFilter().filter(
+                    swagger,
+                    filter,
+                    new HashMap<String, List<String>>(),
+                    new HashMap<String, String>(),
+                    new HashMap<String, List<String>>());
+        } finally {
+            // the filter is configured per apiSource, don't leak it into the next one
+            if (filterClassName != null) {
+                FilterFactory.setFilter(previousFilter);
+            }
         }
-        return new SpecFilter().filter(
-                swagger,
-                filter,
-                new HashMap<String, List<String>>(),
-                new HashMap<String, String>(),
-                new HashMap<String, List<String>>());
     }
 
     private Swagger addSecurityDefinitions(final Swagger swagger, ApiSource apiSource) throws GenerateException {
@@ -173,10 +187,11 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
     }
 
     public void toSwaggerDocuments(String uiDocBasePath, String outputFormats, String fileName, String encoding) throws GenerateException {
-        mapper.configure(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS, false);
-
+        // copy before configuring, the shared Json.mapper() may be in use by other apiSources
         mapper = mapper.copy();
 
+        mapper.configure(SerializationFeature.WRITE_EMPTY_JSON_ARRAYS, false);
+
         if (jsonExampleValues) {
             mapper.addMixInAnnotations(Property.class, PropertyExampleMixIn.class);
         }
@@ -205,22 +220,80 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
 
         fileName = defaultString(fileName, "swagger");
 
+        List<Output> outputs = new ArrayList<Output>();
         for (String format : outputFormats.split(",")) {
             try {
-                Output output = Output.valueOf(format.toLowerCase());
-                switch (output) {
-                    case json:
-                        ObjectWriter jsonWriter = mapper.writer(new DefaultPrettyPrinter());
-                        FileUtils.write(new File(dir, fileName + ".json"), jsonWriter.writeValueAsString(swagger), encoding);
-                        break;
-                    case yaml:
-                        FileUtils.write(new File(dir, fileName + ".yaml"), Yaml.pretty().writeValueAsString(swagger), encoding);
-                        break;
-                }
-            } catch (Exception e) {
+                outputs.add(Output.valueOf(format.toLowerCase()));
+            } catch (IllegalArgumentException e) {
                 throw new GenerateException(String.format("Declared output format [%s] is not supported.", format));
             }
         }
+
+        try {
+            // 每种格式直接序列化到文件, 不在内存中保留整份文档
+            for (Output output : outputs) {
+                writeSwaggerFile(output, new File(dir, fileName + "." + output), encoding);
+            }
+        } catch (IOException e) {
+            throw new GenerateException(String.format("Write swagger document [%s] failed.", fileName), e);
+        }
+    }
+
+    /**
+     * 写出一种格式, 内容未变化时不改动现有文件
+     */
+    private void writeSwaggerFile(Output output, File file, String encoding) throws IOException {
+        try (OutputFile outputFile = new OutputFile(file, outputDigests)) {
+            JsonGenerator generator = createGenerator(output, outputFile.getStream(), encoding);
+            try {
+                // yaml与之前的Yaml.pretty()一致, 不使用json的mapper配置
+                ObjectWriter writer = output == Output.yaml ? Yaml.pretty() : mapper.writer();
+                writer.writeValue(generator, swagger);
+            } finally {
+                generator.close();
+            }
+            commit(outputFile, file);
+        }
+    }
+
+    private void commit(OutputFile outputFile, File file) throws IOException {
+        if (outputFile.commit()) {
+            outputChanged = true;
+        } else {
+            LOG.debug(String.format("%s is unchanged, skip writing", file));
+        }
+    }
+
+    /**
+     * 输出文件的生成器, 经缓冲写入
+     */
+    private JsonGenerator createGenerator(Output output, OutputStream stream, String encoding) throws IOException {
+        Writer out = new BufferedWriter(new OutputStreamWriter(stream,
+                encoding == null ? Charset.defaultCharset() : Charset.forName(encoding)), OUTPUT_BUFFER_SIZE);
+        switch (output) {
+            case yaml:
+                return Yaml.mapper()
+                           .getFactory()
+                           .createGenerator(out);
+            default:
+                return mapper.getFactory()
+                             .createGenerator(out)
+                             .setPrettyPrinter(new DefaultPrettyPrinter());
+        }
+    }
+
+    /**
+     * @param outputDigests 上次写出的文件摘要, 用于跳过内容未变化的文件
+     */
+    public void setOutputDigests(OutputDigests outputDigests) {
+        this.outputDigests = outputDigests;
+    }
+
+    /**
+     * @return 是否有输出文件被重写
+     */
+    public boolean isOutputChanged() {
+        return outputChanged;
     }
 
     public void loadModelModifier() throws GenerateException, IOException {
@@ -267,7 +340,7 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
             }
         }
 
-        ModelConverters.getInstance().addConverter(modelModifier);
+        addModelConverter(modelModifier);
     }
 
     public void loadModelConverters() throws MojoExecutionException {
@@ -281,7 +354,8 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
                 final Class<?> modelConverterClass = Class.forName(modelConverter);
                 if (ModelConverter.class.isAssignableFrom(modelConverterClass)) {
                     final ModelConverter modelConverterInstance = (ModelConverter) modelConverterClass.newInstance();
-                    ModelConverters.getInstance().addConverter(modelConverterInstance);
+                    addModelConverter(modelConverterInstance);
+                    CachingModelConverters.getInstance().setCustomized(true);
                 } else {
                     throw new MojoExecutionException(String.format("Class %s has to be a subclass of %s", modelConverterClass.getName(), ModelConverter.class));
                 }
@@ -295,6 +369,23 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
         }
     }
 
+    private void addModelConverter(ModelConverter modelConverter) {
+        ModelConverters.getInstance().addConverter(modelConverter);
+        modelConverters.add(modelConverter);
+        CachingModelConverters.getInstance().invalidate();
+    }
+
+    /**
+     * 移除当前apiSource注册的ModelConverter, 避免影响之后的apiSource
+     */
+    public void unloadModelConverters() {
+        for (ModelConverter modelConverter : modelConverters) {
+            ModelConverters.getInstance().removeConverter(modelConverter);
+        }
+        modelConverters.clear();
+        CachingModelConverters.getInstance().setCustomized(false);
+    }
+
     /**
      * 读取忽略的类型
      * @throws GenerateException
@@ -358,9 +449,8 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
         }
         LOG.info("Writing doc to " + outputPath + "...");
 
-        try {
-            FileOutputStream fileOutputStream = new FileOutputStream(outputPath);
-            OutputStreamWriter writer = new OutputStreamWriter(fileOutputStream, Charset.forName("UTF-8"));
+        try (OutputFile outputFile = new OutputFile(new File(outputPath), outputDigests)) {
+            OutputStreamWriter writer = new OutputStreamWriter(outputFile.getStream(), Charset.forName("UTF-8"));
 
             TemplatePath tp = Utils.parseTemplateUrl(templatePath);
 
@@ -371,6 +461,7 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
 
             template.apply(swagger, writer);
             writer.close();
+            commit(outputFile, new File(outputPath));
             LOG.info("Done!");
         } catch (MalformedURLException e) {
             throw new GenerateException(e);
@@ -425,6 +516,7 @@ public abstract class AbstractDocumentSource<D extends AbstractReader & ClassSwa
             reader.setTypesToSkip(this.typesToSkip);
             reader.setOperationIdFormat(this.apiSource.getOperationIdFormat());
             reader.setResponseMessageOverrides(this.apiSource.getResponseMessageOverrides());
+            reader.setReaderThreads(this.apiSource.getReaderThreads());
             return reader;
         } else {
             ClassSwaggerReader customApiReader = getCustomApiReader(customReaderClassName);
@@ -0,0 +1,105 @@
+package com.github.kongchen.swagger.docgen;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * 输出文件的内容摘要
+ * <p>
+ * 记录上次写出的文件的sha1, 大小和修改时间; 文件在外部被改动时重新计算摘要.
+ */
+public class OutputDigests {
+
+    private final File store;
+
+    private final Properties entries = new Properties();
+
+    /**
+     * @param store 摘要保存的文件, null时只保存在内存中
+     */
+    public OutputDigests(File store) {
+        this.store = store;
+    }
+
+    public void load() {
+        if (store == null || !store.isFile()) {
+            return;
+        }
+        try (InputStream in = new FileInputStream(store)) {
+            entries.load(in);
+        } catch (IOException e) {
+            entries.clear();
+        }
+    }
+
+    public void save() throws IOException {
+        if (store == null) {
+            return;
+        }
+        File dir = store.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException(String.format("Create directory [%s] for output digests failed.", dir));
+        }
+        try (OutputStream out = new FileOutputStream(store)) {
+            entries.store(out, null);
+        }
+    }
+
+    /**
+     * @param file
+     * @param digest 新内容的摘要
+     * @param length 新内容的长度
+     * @return 现有文件的内容是否与新内容一致
+     * @throws IOException
+     */
+    boolean isSame(File file, String digest, long length) throws IOException {
+        if (!file.isFile() || file.length() != length) {
+            return false;
+        }
+        String stored = entries.getProperty(file.getAbsolutePath());
+        if (stored != null && stored.equals(toEntry(digest, file))) {
+            return true;
+        }
+        // 没有记录或文件被改动过, 按内容计算
+        return digest.equals(digest(file));
+    }
+
+    void update(File file, String digest) {
+        entries.setProperty(file.getAbsolutePath(), toEntry(digest, file));
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static String toEntry(String digest, File file) {
+        return digest + ":" + file.length() + ":" + file.lastModified();
+    }
+
+    private static String digest(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = new DigestInputStream(new BufferedInputStream(new FileInputStream(file)), digest)) {
+            byte[] buffer = new byte[8192];
+            while (in.read(buffer) != -1) {
+                // 读取时计算摘要
+            }
+        }
+        return toHex(digest.digest());
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.kongchen.swagger.docgen;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+
+/**
+ * 写出一个输出文件
+ * <p>
+ * 内容先写到同目录的临时文件并计算摘要, 与现有文件一致时丢弃临时文件,
+ * 现有文件保持不动(不改变修改时间); 否则替换现有文件.
+ */
+class OutputFile implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File file;
+
+    private final OutputDigests digests;
+
+    private final Path temp;
+
+    private final MessageDigest digest = OutputDigests.newDigest();
+
+    private final CountingOutputStream stream;
+
+    private boolean committed;
+
+    OutputFile(File file, OutputDigests digests) throws IOException {
+        this.file = file;
+        this.digests = digests;
+        // 不用Files.createTempFile, 它创建的文件只有所有者可读
+        this.temp = new File(file.getAbsoluteFile()
+                                 .getParentFile(), file.getName() + ".tmp").toPath();
+        OutputStream channel = Channels.newOutputStream(FileChannel.open(this.temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+        this.stream = new CountingOutputStream(new BufferedOutputStream(
+                new DigestOutputStream(channel, this.digest), BUFFER_SIZE));
+    }
+
+    /**
+     * 写入内容的流, 由commit关闭
+     */
+    OutputStream getStream() {
+        return stream;
+    }
+
+    /**
+     * @return 文件内容是否发生变化
+     * @throws IOException
+     */
+    boolean commit() throws IOException {
+        stream.close();
+        committed = true;
+        String hex = OutputDigests.toHex(digest.digest());
+        if (digests.isSame(file, hex, stream.count)) {
+            Files.deleteIfExists(temp);
+            digests.update(file, hex);
+            return false;
+        }
+        try {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        digests.update(file, hex);
+        return true;
+    }
+
+    /**
+     * 未commit时(写出失败)删除临时文件
+     */
+    @Override
+    public void close() throws IOException {
+        if (!committed) {
+            try {
+                stream.close();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
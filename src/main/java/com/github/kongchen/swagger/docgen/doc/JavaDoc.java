@@ -1,93 +1,222 @@
 package com.github.kongchen.swagger.docgen.doc;
 
 
+import com.github.javaparser.ParseProblemException;
+import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
-import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public final class JavaDoc {
     private static final JavaDoc instance = new JavaDoc();
 
+    private static final String CACHE_FILE = "swagger-maven-plugin/javadoc.cache";
+
     public static JavaDoc getInstance() {
         return instance;
     }
 
-    private Map<String, JavaFile> javaFileHashMap = new HashMap<>();
+    /**
+     * 类名 -> 源文件, 按源码目录下的相对路径推导
+     */
+    private volatile Map<String, Path> sourcePaths = new ConcurrentHashMap<>();
+
+    /**
+     * 已解析的源文件, 无法解析的文件记为empty, 不再重复解析
+     */
+    private volatile Map<String, Optional<JavaFile>> javaFileHashMap = new ConcurrentHashMap<>();
+
+    /**
+     * 持久化的注释缓存, 为null时不使用缓存
+     */
+    private volatile JavaDocCache cache;
+
+    /**
+     * 方法/字段 -> 注释, 同一成员再次查询只需一次hash查找
+     */
+    private volatile Map<Member, String> memberComments = new ConcurrentHashMap<>();
 
     public String getMethodName(Method method) {
-        JavaFile javaFile = getJavaFile(method.getDeclaringClass()
-                                              .getName());
-        if (javaFile != null) {
-            return javaFile.getMethod(method);
+        String comment = memberComments.get(method);
+        if (comment == null) {
+            JavaFile javaFile = getJavaFile(getTopLevelName(method.getDeclaringClass()));
+            comment = javaFile == null ? "" : javaFile.getMethod(method);
+            memberComments.put(method, comment);
         }
-        return "";
+        return comment;
     }
 
     public String getFieldName(Field field) {
-        JavaFile javaFile = getJavaFile(field.getDeclaringClass()
-                                             .getName());
-        if (javaFile != null) {
-            return javaFile.getField(field);
+        String comment = memberComments.get(field);
+        if (comment == null) {
+            JavaFile javaFile = getJavaFile(getTopLevelName(field.getDeclaringClass()));
+            comment = javaFile == null ? "" : javaFile.getField(field);
+            memberComments.put(field, comment);
         }
-        return "";
+        return comment;
+    }
+
+    /**
+     * 内部类的注释在外层类的源文件里
+     */
+    private static String getTopLevelName(Class<?> clazz) {
+        Class<?> topLevel = clazz;
+        while (topLevel.getEnclosingClass() != null) {
+            topLevel = topLevel.getEnclosingClass();
+        }
+        return topLevel.getName();
     }
 
     private JavaFile getJavaFile(String name) {
-        return javaFileHashMap.get(name);
+        Optional<JavaFile> javaFile = javaFileHashMap.get(name);
+        if (javaFile == null) {
+            final Path path = sourcePaths.get(name);
+            if (path == null) {
+                return null;
+            }
+            // 懒加载: 第一次查询时才解析
+            javaFile = javaFileHashMap.computeIfAbsent(name, new Function<String, Optional<JavaFile>>() {
+                @Override
+                public Optional<JavaFile> apply(String key) {
+                    return Optional.ofNullable(loadJavaFile(path));
+                }
+            });
+        }
+        return javaFile.orElse(null);
     }
 
     public void init(MavenProject project) {
+        init(project, false, null);
+    }
+
+    /**
+     * 建立类名到源文件的索引
+     *
+     * @param project
+     * @param lazy    true时只记录源文件路径, 第一次查询时才解析; false时并行解析所有源文件
+     * @param log     不为null时启用target下的注释缓存
+     */
+    public void init(MavenProject project, boolean lazy, Log log) {
+        String buildDirectory = project.getBuild()
+                                       .getDirectory();
+        if (log != null && buildDirectory != null) {
+            JavaDocCache javaDocCache = new JavaDocCache(new File(buildDirectory, CACHE_FILE), log);
+            javaDocCache.load();
+            this.cache = javaDocCache;
+        } else {
+            this.cache = null;
+        }
+
+        Map<String, Path> paths = new LinkedHashMap<>();
         List<?> rootDirectories = project.getCompileSourceRoots();
         for (Object raw : rootDirectories) {
             String rootDirectory = String.class.cast(raw);
             try {
-                loadJavaFile(Paths.get(rootDirectory));
+                listJavaFiles(Paths.get(rootDirectory), paths);
             } catch (IOException e) {
             }
         }
-    }
 
+        final Map<String, Optional<JavaFile>> javaFiles = new ConcurrentHashMap<>();
+        if (!lazy) {
+            paths.values()
+                 .parallelStream()
+                 .forEach(new Consumer<Path>() {
+                     @Override
+                     public void accept(Path path) {
+                         JavaFile javaFile = loadJavaFile(path);
+                         if (javaFile != null) {
+                             javaFiles.put(javaFile.getQualifiedName(), Optional.of(javaFile));
+                         }
+                     }
+                 });
+        }
+        this.sourcePaths = lazy ? new ConcurrentHashMap<>(paths) : new ConcurrentHashMap<String, Path>();
+        this.javaFileHashMap = javaFiles;
+        this.memberComments = new ConcurrentHashMap<>();
+    }
 
     /**
-     * 读取java源文件
+     * 列出目录下所有java源文件
      *
-     * @param dir
+     * @param root
+     * @param paths 类名 -> 源文件, 多个源码目录中有同名类时保留第一个
      * @throws IOException
      */
-    private void loadJavaFile(Path dir) throws IOException {
-        DirectoryStream<Path> stream = null;
-        try {
-            stream = Files.newDirectoryStream(dir);
-            for (Path path : stream) {
-                if (path.toFile()
-                        .isDirectory()) {
-                    loadJavaFile(path);
-                } else if (path.getFileName()
-                               .toString()
-                               .endsWith(".java")) {
-
-                    JavaFile javaFile = new JavaFile(path);
-
-                    //记录
-                    javaFileHashMap.put(
-                            javaFile.getPackageName() + "." + javaFile.getClassName(),
-                            new JavaFile(path)
-                    );
+    private static void listJavaFiles(Path root, Map<String, Path> paths) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(root)) {
+            Iterator<Path> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                String fileName = path.getFileName()
+                                      .toString();
+                if (fileName.endsWith(".java") && Files.isRegularFile(path)) {
+                    String relative = root.relativize(path)
+                                          .toString();
+                    String name = relative.substring(0, relative.length() - ".java".length())
+                                          .replace(path.getFileSystem()
+                                                       .getSeparator(), ".");
+                    if (!paths.containsKey(name)) {
+                        paths.put(name, path);
+                    }
                 }
             }
-        } finally {
-            if (stream != null) {
-                stream.close();
+        }
+    }
+
+    /**
+     * 读取java源文件, 无法解析时忽略
+     *
+     * @param path
+     * @return
+     */
+    private JavaFile loadJavaFile(Path path) {
+        JavaDocCache javaDocCache = this.cache;
+        if (javaDocCache != null) {
+            JavaFile javaFile = javaDocCache.get(path);
+            if (javaFile != null) {
+                return javaFile;
+            }
+        }
+        try {
+            JavaFile javaFile = new JavaFile(path);
+            if (javaDocCache != null) {
+                javaDocCache.put(path, javaFile);
             }
+            return javaFile;
+        } catch (IOException | ParseProblemException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 保存注释缓存并输出命中情况
+     *
+     * @throws IOException
+     */
+    public void saveCache() throws IOException {
+        JavaDocCache javaDocCache = this.cache;
+        if (javaDocCache != null) {
+            javaDocCache.save();
         }
     }
 }
@@ -0,0 +1,175 @@
+package com.github.kongchen.swagger.docgen.doc;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * java doc注释缓存
+ * <p>
+ * 以源文件路径, 大小和修改时间为key保存解析出的注释,
+ * 未修改的源文件直接从缓存读取, 不再解析.
+ */
+class JavaDocCache {
+
+    private static final int VERSION = 3;
+
+    private final File file;
+
+    private final Log log;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private volatile boolean dirty;
+
+    JavaDocCache(File file, Log log) {
+        this.file = file;
+        this.log = log;
+    }
+
+    void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) {
+                return;
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                String path = in.readUTF();
+                long length = in.readLong();
+                long lastModified = in.readLong();
+                String packageName = in.readBoolean() ? in.readUTF() : null;
+                String className = in.readUTF();
+                Map<String, String> methods = readMap(in);
+                Map<String, String> fields = readMap(in);
+                entries.put(path, new Entry(length, lastModified,
+                        new JavaFile(packageName, className, methods, fields)));
+            }
+        } catch (IOException e) {
+            entries.clear();
+            if (log != null) {
+                log.warn(String.format("Ignoring unreadable javadoc cache %s: %s", file, e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * @param path
+     * @return 源文件未修改时返回缓存的结果, 否则返回null
+     */
+    JavaFile get(Path path) {
+        Entry entry = entries.get(path.toString());
+        if (entry != null) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.size() == entry.length && attributes.lastModifiedTime()
+                                                                   .toMillis() == entry.lastModified) {
+                    hits.incrementAndGet();
+                    return entry.javaFile;
+                }
+            } catch (IOException e) {
+                // 按未命中处理
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    void put(Path path, JavaFile javaFile) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            entries.put(path.toString(), new Entry(attributes.size(), attributes.lastModifiedTime()
+                                                                                 .toMillis(), javaFile));
+            dirty = true;
+        } catch (IOException e) {
+            entries.remove(path.toString());
+        }
+    }
+
+    /**
+     * 写回缓存, 丢弃已删除的源文件
+     *
+     * @throws IOException
+     */
+    void save() throws IOException {
+        if (log != null) {
+            log.info(String.format("JavaDoc cache: %d hit(s), %d miss(es)", hits.get(), misses.get()));
+        }
+        Map<String, Entry> live = new HashMap<>();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (new File(entry.getKey()).isFile()) {
+                live.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!dirty && live.size() == entries.size()) {
+            return;
+        }
+
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException(String.format("Create directory [%s] for javadoc cache failed.", dir));
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(VERSION);
+            out.writeInt(live.size());
+            for (Map.Entry<String, Entry> entry : live.entrySet()) {
+                JavaFile javaFile = entry.getValue().javaFile;
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue().length);
+                out.writeLong(entry.getValue().lastModified);
+                out.writeBoolean(javaFile.getPackageName() != null);
+                if (javaFile.getPackageName() != null) {
+                    out.writeUTF(javaFile.getPackageName());
+                }
+                out.writeUTF(javaFile.getClassName());
+                writeMap(out, javaFile.getMethodMap());
+                writeMap(out, javaFile.getFieldMap());
+            }
+        }
+        dirty = false;
+    }
+
+    private static Map<String, String> readMap(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, String> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(in.readUTF(), in.readUTF());
+        }
+        return map;
+    }
+
+    private static void writeMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeUTF(entry.getValue());
+        }
+    }
+
+    private static class Entry {
+        private final long length;
+
+        private final long lastModified;
+
+        private final JavaFile javaFile;
+
+        Entry(long length, long lastModified, JavaFile javaFile) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.javaFile = javaFile;
+        }
+    }
+}
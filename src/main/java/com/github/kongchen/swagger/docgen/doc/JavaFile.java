@@ -1,31 +1,38 @@
 package com.github.kongchen.swagger.docgen.doc;
 
-import com.github.javaparser.JavaParser;
-import com.github.javaparser.ParseResult;
 import com.github.javaparser.StaticJavaParser;
 import com.github.javaparser.ast.CompilationUnit;
-import com.github.javaparser.ast.body.FieldDeclaration;
-import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.NodeList;
+import com.github.javaparser.ast.body.*;
+import com.github.javaparser.ast.type.ArrayType;
+import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.github.javaparser.ast.type.Type;
+import com.github.javaparser.ast.type.TypeParameter;
 import com.github.javaparser.ast.visitor.VoidVisitorAdapter;
-import org.apache.commons.io.FileUtils;
+import com.github.javaparser.javadoc.Javadoc;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.*;
 
 /**
  * java原文件路径
+ * <p>
+ * 只解析一次源文件, 只保留非空的字段注释.
+ * 方法注释以 类名(相对包名, 内部类用$分隔)#方法名(参数类型擦除后的简单名) 为key, 重载方法互不覆盖;
+ * 没有注释的方法也记录签名(注释为空), 不会取到其他重载方法的注释.
  */
 public class JavaFile extends VoidVisitorAdapter {
 
-    private Path path;
+    /**
+     * key和注释在所有源文件间共享
+     */
+    private static final Interner<String> INTERNER = Interners.newWeakInterner();
 
     private String packageName;
 
@@ -35,6 +42,11 @@ public class JavaFile extends VoidVisitorAdapter {
 
     private Map<String, String> fieldMap = new HashMap<>();
 
+    /**
+     * 解析时当前所在的类, 外层在前
+     */
+    private final Deque<TypeDeclaration<?>> types = new ArrayDeque<>();
+
     public String getPackageName() {
         return packageName;
     }
@@ -44,67 +56,224 @@ public class JavaFile extends VoidVisitorAdapter {
     }
 
     public JavaFile(Path path) throws IOException {
-        this.path = path;
-        this.packageName = getPackageNameFromFile();
+        CompilationUnit unit = StaticJavaParser.parse(path);
+        this.packageName = unit.getPackageDeclaration().isPresent()
+                ? unit.getPackageDeclaration().get().getNameAsString()
+                : null;
         this.className = path.getFileName()
                              .toString()
                              .replace(".java", "");
-        this.visit(StaticJavaParser.parse(path), null);
+        this.visit(unit, null);
+    }
+
+    /**
+     * 从缓存恢复
+     */
+    JavaFile(String packageName, String className, Map<String, String> methodMap, Map<String, String> fieldMap) {
+        this.packageName = packageName;
+        this.className = className;
+        this.methodMap = internAll(methodMap);
+        this.fieldMap = internAll(fieldMap);
+    }
+
+    Map<String, String> getMethodMap() {
+        return methodMap;
+    }
+
+    Map<String, String> getFieldMap() {
+        return fieldMap;
+    }
+
+    /**
+     * @return 源文件对应的类全名
+     */
+    public String getQualifiedName() {
+        return packageName == null ? className : packageName + "." + className;
     }
 
+    /**
+     * 先按签名查找, 签名不在源码中时(例如泛型参数的擦除无法从源码判断)退回到同名方法中第一个有注释的
+     *
+     * @param method
+     * @return
+     */
     public String getMethod(Method method) {
-        String result = methodMap.get(method.getName());
-        return StringUtils.isBlank(result) ? "" : result;
+        String typeName = getRelativeName(method.getDeclaringClass());
+        StringBuilder key = new StringBuilder(typeName).append('#')
+                                                       .append(method.getName())
+                                                       .append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(parameterTypes[i].getSimpleName());
+        }
+        String result = methodMap.get(key.append(')')
+                                         .toString());
+        // 签名存在时即使注释为空也不退回
+        if (result == null) {
+            result = methodMap.get(typeName + "#" + method.getName());
+        }
+        return result == null ? "" : result;
     }
 
     public String getField(Field field) {
-        String result = fieldMap.get(field.getName());
-        return StringUtils.isBlank(result) ? "" : result;
+        String result = fieldMap.get(getRelativeName(field.getDeclaringClass()) + "#" + field.getName());
+        return result == null ? "" : result;
+    }
+
+    @Override
+    public void visit(ClassOrInterfaceDeclaration n, Object arg) {
+        visitType(n, arg);
     }
 
+    @Override
+    public void visit(EnumDeclaration n, Object arg) {
+        visitType(n, arg);
+    }
 
-    private String getFileString() {
-        try {
-            return FileUtils.readFileToString(path.toFile(), "utf-8");
-        } catch (IOException e) {
-            return "";
-        }
+    @Override
+    public void visit(AnnotationDeclaration n, Object arg) {
+        visitType(n, arg);
+    }
+
+    @Override
+    public void visit(EnumConstantDeclaration n, Object arg) {
+        // 枚举常量的类体是匿名类, 不记录
     }
 
     @Override
     public void visit(MethodDeclaration n, Object arg) {
-        String comment = "";
-        if (n.getJavadoc().isPresent()){
-            comment = n.getJavadoc().get().toText();
-            comment = StringUtils.substringBefore(comment, "@");
-            comment = comment.replaceAll("\n", "");
+        String comment = toComment(n.getJavadoc());
+        String typeName = getTypeName();
+        Map<String, String> typeVariables = getTypeVariables(n.getTypeParameters());
+
+        StringBuilder key = new StringBuilder(typeName).append('#')
+                                                       .append(n.getNameAsString())
+                                                       .append('(');
+        NodeList<Parameter> parameters = n.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i > 0) {
+                key.append(',');
+            }
+            key.append(erasure(parameters.get(i)
+                                         .getType(), typeVariables));
+            if (parameters.get(i)
+                          .isVarArgs()) {
+                key.append("[]");
+            }
+        }
+        String intern = INTERNER.intern(comment == null ? "" : comment);
+        this.methodMap.put(INTERNER.intern(key.append(')')
+                                              .toString()), intern);
+        if (comment == null) {
+            return;
+        }
+        String nameKey = INTERNER.intern(typeName + "#" + n.getNameAsString());
+        if (!this.methodMap.containsKey(nameKey)) {
+            this.methodMap.put(nameKey, intern);
         }
-        this.methodMap.put(n.getName().asString(), comment);
     }
 
     @Override
     public void visit(FieldDeclaration n, Object arg) {
-        String comment = "";
-        if (n.getJavadoc().isPresent()){
-            comment = n.getJavadoc().get().toText();
-            comment = StringUtils.substringBefore(comment, "@");
-            comment = comment.replaceAll("\n", "");
+        String comment = toComment(n.getJavadoc());
+        if (comment == null) {
+            return;
+        }
+        String intern = INTERNER.intern(comment);
+        for (VariableDeclarator variable : n.getVariables()) {
+            this.fieldMap.put(INTERNER.intern(getTypeName() + "#" + variable.getNameAsString()), intern);
+        }
+    }
+
+    private void visitType(TypeDeclaration<?> n, Object arg) {
+        types.addLast(n);
+        try {
+            super.visit(n.getMembers(), arg);
+        } finally {
+            types.removeLast();
         }
-        this.fieldMap.put(n.getVariable(0).getName().asString(), comment);
     }
 
     /**
-     * @return
+     * @return 当前类相对包名的二进制名, 例如 Outer$Inner
+     */
+    private String getTypeName() {
+        StringBuilder name = new StringBuilder();
+        for (TypeDeclaration<?> type : types) {
+            if (name.length() > 0) {
+                name.append('$');
+            }
+            name.append(type.getNameAsString());
+        }
+        return name.toString();
+    }
+
+    private String getRelativeName(Class<?> clazz) {
+        String name = clazz.getName();
+        return packageName == null ? name : name.substring(packageName.length() + 1);
+    }
+
+    /**
+     * 方法和外层类的类型参数 -> 擦除后的类型
+     */
+    private Map<String, String> getTypeVariables(NodeList<TypeParameter> methodTypeParameters) {
+        Map<String, String> typeVariables = new HashMap<>();
+        for (TypeDeclaration<?> type : types) {
+            if (type instanceof ClassOrInterfaceDeclaration) {
+                putTypeVariables(typeVariables, ((ClassOrInterfaceDeclaration) type).getTypeParameters());
+            }
+        }
+        putTypeVariables(typeVariables, methodTypeParameters);
+        return typeVariables;
+    }
+
+    private static void putTypeVariables(Map<String, String> typeVariables, NodeList<TypeParameter> typeParameters) {
+        for (TypeParameter typeParameter : typeParameters) {
+            String bound = typeParameter.getTypeBound()
+                                        .isEmpty()
+                    ? "Object"
+                    : erasure(typeParameter.getTypeBound()
+                                           .get(0), typeVariables);
+            typeVariables.put(typeParameter.getNameAsString(), bound);
+        }
+    }
+
+    /**
+     * 源码中的类型 -> 与Class.getSimpleName一致的擦除后简单名
      */
-    private String getPackageNameFromFile() {
-        String fileString = getFileString();
-        Pattern pattern = Pattern.compile(JavaDocRegex.PACKAGE);
-        Matcher matcher = pattern.matcher(fileString);
-        if (matcher.find()) {
-            return fileString.substring(matcher.start() + 8, matcher.end() - 1);
+    private static String erasure(Type type, Map<String, String> typeVariables) {
+        if (type instanceof ArrayType) {
+            return erasure(((ArrayType) type).getComponentType(), typeVariables) + "[]";
+        }
+        if (type instanceof ClassOrInterfaceType) {
+            String name = ((ClassOrInterfaceType) type).getNameAsString();
+            String typeVariable = typeVariables.get(name);
+            return typeVariable == null ? name : typeVariable;
         }
-        return null;
+        return type.asString();
     }
 
+    /**
+     * @return 注释正文, 没有注释时返回null
+     */
+    private static String toComment(Optional<Javadoc> javadoc) {
+        if (!javadoc.isPresent()) {
+            return null;
+        }
+        String comment = javadoc.get().toText();
+        comment = StringUtils.substringBefore(comment, "@");
+        comment = comment.replaceAll("\n", "");
+        return StringUtils.isBlank(comment) ? null : comment;
+    }
 
+    private static Map<String, String> internAll(Map<String, String> map) {
+        Map<String, String> interned = new HashMap<>(map.size() * 2);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            interned.put(INTERNER.intern(entry.getKey()), INTERNER.intern(entry.getValue()));
+        }
+        return interned;
+    }
 }
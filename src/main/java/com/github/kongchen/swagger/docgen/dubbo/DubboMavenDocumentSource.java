@@ -2,12 +2,12 @@ package com.github.kongchen.swagger.docgen.dubbo;
 
 import com.github.kongchen.swagger.docgen.AbstractDocumentSource;
 import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
+import com.github.kongchen.swagger.docgen.scan.ClassFileScanner;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.logging.Log;
-import org.reflections.Reflections;
-import org.reflections.scanners.SubTypesScanner;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.Opcodes;
 
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -22,26 +22,27 @@ public class DubboMavenDocumentSource extends AbstractDocumentSource<DubboReader
 
     /**
      * 只抽取接口并且接口名包含 provider的
+     * <p>
+     * 直接从class文件头判断类名和接口标志, 只加载符合条件的类, 并且不执行静态初始化
      *
      * @return
      */
     @Override
     protected Set<Class<?>> getValidClasses() {
-        Set<Class<?>> result = new HashSet<>();
-        for (String location : apiSource.getLocations()) {
-            for (String typeName : new Reflections(location, new SubTypesScanner(false)).getAllTypes()) {
-                if (typeName.endsWith("Provider")) {
-                    try {
-                        final Class<?> aClass = Class.forName(typeName);
-                        if (aClass.isInterface()) {
-                            result.add(Class.forName(typeName));
-                        }
-                    } catch (ClassNotFoundException e) {
-                    }
-                }
+        ClassFileScanner scanner = new ClassFileScanner(this.LOG);
+        Set<String> classNames = scanner.scan(apiSource.getLocations(), new ClassFileScanner.ClassFileFilter() {
+            @Override
+            public boolean acceptName(String className) {
+                return className.endsWith("Provider");
             }
-        }
-        return result;
+
+            @Override
+            public boolean accept(ClassReader reader) {
+                return (reader.getAccess() & Opcodes.ACC_INTERFACE) != 0;
+            }
+        });
+        // 保持扫描结果的类名顺序
+        return scanner.load(classNames, DubboMavenDocumentSource.class.getClassLoader());
     }
 
     @Override
@@ -1,9 +1,9 @@
 package com.github.kongchen.swagger.docgen.dubbo;
 
 import com.github.kongchen.swagger.docgen.doc.JavaDoc;
+import com.github.kongchen.swagger.docgen.reader.CachingModelConverters;
 import com.github.kongchen.swagger.docgen.util.TypeUtils;
 import com.google.common.collect.Lists;
-import io.swagger.converter.ModelConverters;
 import io.swagger.jaxrs.ext.SwaggerExtension;
 import io.swagger.jaxrs.ext.SwaggerExtensions;
 import io.swagger.models.*;
@@ -17,10 +17,8 @@ import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.core.DefaultParameterNameDiscoverer;
-import org.springframework.util.ReflectionUtils;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.*;
@@ -173,16 +171,16 @@ public class DubboMethod {
 
         // 如果是基础类型
         if (TypeUtils.isPrimitive(returnType)) {
-            property = ModelConverters.getInstance()
+            property = CachingModelConverters.getInstance()
                                       .readAsProperty(returnType);
         }
 
         // 非基础类型
         else {
-            final Map<String, Model> models = ModelConverters.getInstance()
+            final Map<String, Model> models = CachingModelConverters.getInstance()
                                                              .read(returnType);
             if (models.isEmpty()) {
-                property = ModelConverters.getInstance()
+                property = CachingModelConverters.getInstance()
                                           .readAsProperty(returnType);
             } else {
                 for (final String key : models.keySet()) {
@@ -200,39 +198,15 @@ public class DubboMethod {
 
 
     private void writeToComment(Type type, BodyParameter parameter) {
-        Model schema = parameter.getSchema();
-        if (schema == null) {
+        if (parameter.getSchema() == null) {
             return;
         }
-        if (StringUtils.isBlank(schema.getReference())) {
-            return;
-        }
-        RefModel refModel = (RefModel) schema;
-        ModelImpl model = (ModelImpl) swagger.getDefinitions()
-                                             .get(refModel.getOriginalRef());
-        this.writeToComment(type, model);
+        this.dubboResource.getEnricher()
+                          .enrich(this.swagger, type, parameter.getSchema());
     }
 
-    private void writeToComment(Type returnType, Model model){
-        Map<String, Property> properties = model.getProperties();
-        if (properties == null) {
-            return;
-        }
-
-        //
-        Map<String, List> rules = new HashMap<>();
-        for (String pName : properties.keySet()) {
-
-            // 反射这个字段
-            Field field = ReflectionUtils.findField((Class<?>) returnType, pName);
-            if (field == null) {
-                continue;
-            }
-
-            Property property = properties.get(pName);
-            if (StringUtils.isBlank(property.getDescription())){
-                property.setDescription(JavaDoc.getInstance().getFieldName(field)); //设置注释
-            }
-        }
+    private void writeToComment(Type returnType, Model model) {
+        this.dubboResource.getEnricher()
+                          .enrich(this.swagger, returnType, model);
     }
 }
@@ -3,16 +3,27 @@ package com.github.kongchen.swagger.docgen.dubbo;
 import com.github.kongchen.swagger.docgen.GenerateException;
 import com.github.kongchen.swagger.docgen.reader.AbstractReader;
 import com.github.kongchen.swagger.docgen.reader.ClassSwaggerReader;
+import com.github.kongchen.swagger.docgen.validation.DefinitionEnricher;
 import io.swagger.models.Swagger;
 import org.apache.maven.plugin.logging.Log;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 /**
  *
  */
 public class DubboReader extends AbstractReader implements ClassSwaggerReader {
 
+    /**
+     * dubbo接口只补充注释, 不写验证规则
+     */
+    private final DefinitionEnricher enricher = new DefinitionEnricher(false);
+
     public DubboReader(Swagger swagger, Log LOG) {
         super(swagger, LOG);
     }
@@ -24,10 +35,44 @@ public class DubboReader extends AbstractReader implements ClassSwaggerReader {
      */
     @Override
     public Swagger read(Set<Class<?>> classes) throws GenerateException {
-        for (Class<?> aClass : classes) {
-            final DubboResource dubboResource = new DubboResource(aClass);
+        // 按类名排序, 多个接口生成相同path时结果与传入集合的迭代顺序无关
+        List<Class<?>> providers = new ArrayList<>(classes);
+        Collections.sort(providers, new Comparator<Class<?>>() {
+            @Override
+            public int compare(Class<?> o1, Class<?> o2) {
+                return o1.getName()
+                         .compareTo(o2.getName());
+            }
+        });
+        if (this.readerThreads > 1 && providers.size() > 1) {
+            this.readProvidersInParallel(providers);
+            return this.swagger;
+        }
+        for (Class<?> aClass : providers) {
+            final DubboResource dubboResource = new DubboResource(aClass, this.enricher);
             dubboResource.write(this.swagger);
         }
         return this.swagger;
     }
+
+    /**
+     * 每个provider接口写入独立的Swagger, 按接口顺序合并
+     *
+     * @param providers 按类名排序
+     * @throws GenerateException
+     */
+    private void readProvidersInParallel(List<Class<?>> providers) throws GenerateException {
+        List<Callable<Swagger>> tasks = new ArrayList<>();
+        for (final Class<?> aClass : providers) {
+            tasks.add(new Callable<Swagger>() {
+                @Override
+                public Swagger call() {
+                    Swagger partial = new Swagger();
+                    new DubboResource(aClass, DubboReader.this.enricher).write(partial);
+                    return partial;
+                }
+            });
+        }
+        this.readInParallel(tasks);
+    }
 }
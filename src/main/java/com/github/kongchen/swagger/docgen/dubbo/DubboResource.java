@@ -1,5 +1,6 @@
 package com.github.kongchen.swagger.docgen.dubbo;
 
+import com.github.kongchen.swagger.docgen.validation.DefinitionEnricher;
 import io.swagger.models.Swagger;
 import lombok.Getter;
 import lombok.Setter;
@@ -18,8 +19,18 @@ public class DubboResource {
      */
     private Class<?> providerClass;
 
+    /**
+     * 补充模型注释, 由reader持有
+     */
+    private DefinitionEnricher enricher;
+
     public DubboResource(Class<?> providerClass) {
+        this(providerClass, new DefinitionEnricher(false));
+    }
+
+    public DubboResource(Class<?> providerClass, DefinitionEnricher enricher) {
         this.providerClass = providerClass;
+        this.enricher = enricher;
     }
 
     /**
@@ -1,9 +1,9 @@
 package com.github.kongchen.swagger.docgen.jaxrs;
 
+import com.github.kongchen.swagger.docgen.reader.CachingModelConverters;
 import com.google.common.base.Strings;
 import com.google.common.collect.ClassToInstanceMap;
 import com.google.common.collect.MutableClassToInstanceMap;
-import io.swagger.converter.ModelConverters;
 import io.swagger.jaxrs.ext.AbstractSwaggerExtension;
 import io.swagger.jaxrs.ext.SwaggerExtension;
 import io.swagger.models.parameters.*;
@@ -87,7 +87,7 @@ public class JaxrsParameterExtension extends AbstractSwaggerExtension {
         if (!Strings.isNullOrEmpty(defaultValue)) {
             queryParameter.setDefaultValue(defaultValue);
         }
-        Property schema = ModelConverters.getInstance().readAsProperty(type);
+        Property schema = CachingModelConverters.getInstance().readAsProperty(type);
         if (schema != null) {
             queryParameter.setProperty(schema);
         }
@@ -105,7 +105,7 @@ public class JaxrsParameterExtension extends AbstractSwaggerExtension {
         if (!Strings.isNullOrEmpty(defaultValue)) {
             pathParameter.setDefaultValue(defaultValue);
         }
-        Property schema = ModelConverters.getInstance().readAsProperty(type);
+        Property schema = CachingModelConverters.getInstance().readAsProperty(type);
         if (schema != null) {
             pathParameter.setProperty(schema);
         }
@@ -122,7 +122,7 @@ public class JaxrsParameterExtension extends AbstractSwaggerExtension {
         if (!Strings.isNullOrEmpty(defaultValue)) {
             headerParameter.setDefaultValue(defaultValue);
         }
-        Property schema = ModelConverters.getInstance().readAsProperty(type);
+        Property schema = CachingModelConverters.getInstance().readAsProperty(type);
         if (schema != null) {
             headerParameter.setProperty(schema);
         }
@@ -139,7 +139,7 @@ public class JaxrsParameterExtension extends AbstractSwaggerExtension {
         if (!Strings.isNullOrEmpty(defaultValue)) {
             cookieParameter.setDefaultValue(defaultValue);
         }
-        Property schema = ModelConverters.getInstance().readAsProperty(type);
+        Property schema = CachingModelConverters.getInstance().readAsProperty(type);
         if (schema != null) {
             cookieParameter.setProperty(schema);
         }
@@ -156,7 +156,7 @@ public class JaxrsParameterExtension extends AbstractSwaggerExtension {
         if (!Strings.isNullOrEmpty(defaultValue)) {
             formParameter.setDefaultValue(defaultValue);
         }
-        Property schema = ModelConverters.getInstance().readAsProperty(type);
+        Property schema = CachingModelConverters.getInstance().readAsProperty(type);
         if (schema != null) {
             formParameter.setProperty(schema);
         }
@@ -2,8 +2,12 @@ package com.github.kongchen.swagger.docgen.mavenplugin;
 
 import com.github.kongchen.swagger.docgen.AbstractDocumentSource;
 import com.github.kongchen.swagger.docgen.GenerateException;
+import com.github.kongchen.swagger.docgen.OutputDigests;
 import com.github.kongchen.swagger.docgen.doc.JavaDoc;
 import com.github.kongchen.swagger.docgen.dubbo.DubboMavenDocumentSource;
+import com.github.kongchen.swagger.docgen.reader.CachingModelConverters;
+import com.github.kongchen.swagger.docgen.scan.ClassIndex;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import io.swagger.models.Info;
 import io.swagger.util.Json;
 import org.apache.commons.io.FileUtils;
@@ -18,9 +22,8 @@ import org.apache.maven.project.MavenProjectHelper;
 
 import java.io.*;
 import java.lang.reflect.Method;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * User: kongchen
@@ -30,6 +33,8 @@ import java.util.List;
         requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME, threadSafe = true)
 public class ApiDocumentMojo extends AbstractMojo {
 
+    private static final String OUTPUT_DIGESTS_FILE = "swagger-maven-plugin/output.digest";
+
     /**
      * A set of apiSources.
      * One apiSource can be considered as a set of APIs for one apiVersion in a basePath
@@ -50,11 +55,35 @@ public class ApiDocumentMojo extends AbstractMojo {
     private List<String> enabledObjectMapperFeatures;
 
     /**
-     *
+     * 生成后通知的地址, swagger.json以POST方式发送
      */
     @Parameter
     private List<String> callbacks;
 
+    /**
+     * 每个回调地址的连接和读取超时(毫秒)
+     */
+    @Parameter(property = "swagger.callback.timeout", defaultValue = "10000")
+    private int callbackTimeout;
+
+    /**
+     * 回调失败(连接失败或5xx)后的重试次数
+     */
+    @Parameter(property = "swagger.callback.retries", defaultValue = "2")
+    private int callbackRetries;
+
+    /**
+     * 所有回调的总等待时间(毫秒), 超时后不再等待
+     */
+    @Parameter(property = "swagger.callback.deadline", defaultValue = "30000")
+    private long callbackDeadline;
+
+    /**
+     * 回调内容是否以gzip压缩(Content-Encoding: gzip)
+     */
+    @Parameter(property = "swagger.callback.gzip", defaultValue = "false")
+    private boolean callbackGzip;
+
     /**
      * A set of feature enums which should be enabled on the JSON object mapper
      */
@@ -65,11 +94,34 @@ public class ApiDocumentMojo extends AbstractMojo {
     @Parameter(defaultValue = "${project}", readonly = true)
     private MavenProject project;
 
+    /**
+     * 插件版本, 升级插件后增量缓存失效
+     */
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
     private String projectEncoding;
 
     @Component
     private MavenProjectHelper projectHelper;
 
+    private OutputDigests outputDigests;
+
+    /**
+     * 内容发生变化, 需要回调通知的文件
+     */
+    private final List<File> changedFiles = new ArrayList<>();
+
+    /**
+     * 本次执行是否已经建立类索引和java doc索引
+     */
+    private boolean indexed;
+
+    /**
+     * 本次执行所有apiSource共享的类索引
+     */
+    private ClassIndex classIndex;
+
     /**
      * A flag indicating if the generation should be skipped.
      */
@@ -79,6 +131,24 @@ public class ApiDocumentMojo extends AbstractMojo {
     @Parameter(property = "file.encoding")
     private String encoding;
 
+    /**
+     * 生成线程数, 大于1时多个apiSource的输出并行写出
+     */
+    @Parameter(property = "swagger.threads", defaultValue = "1")
+    private int threads;
+
+    /**
+     * 增量生成, class文件/依赖/apiSource配置未变化时跳过该apiSource
+     */
+    @Parameter(property = "swagger.incremental", defaultValue = "false")
+    private boolean incremental;
+
+    /**
+     * 按需解析java doc, 只解析实际用到的类的源文件
+     */
+    @Parameter(property = "swagger.javadoc.lazy", defaultValue = "true")
+    private boolean lazyJavaDoc;
+
     public List<ApiSource> getApiSources() {
         return this.apiSources;
     }
@@ -119,10 +189,8 @@ public class ApiDocumentMojo extends AbstractMojo {
         info.setVersion(version);
         info.setDescription(this.project.getGroupId() + "|" + this.project.getArtifactId());
 
-
-        // 增加java doc
-        JavaDoc.getInstance()
-               .init(this.project);
+        this.indexed = false;
+        this.classIndex = new ClassIndex(this.getLog());
 
         try {
             this.getLog()
@@ -137,56 +205,53 @@ public class ApiDocumentMojo extends AbstractMojo {
                 this.configureObjectMapperFeatures(this.disabledObjectMapperFeatures, false);
             }
 
-            for (final ApiSource apiSource : this.apiSources) {
-                apiSource.setSpringmvc(true); //肯定是mvc
-                apiSource.setInfo(info);
-                apiSource.setOutputFormats("json");
-                apiSource.setSwaggerDirectory("./swagger");
-
-                this.validateConfiguration(apiSource);
-
-                // 使用spring
-//                final AbstractDocumentSource documentSource = apiSource.isSpringmvc()
-//                        ? new SpringMavenDocumentSource(apiSource, this.getLog(), this.projectEncoding)
-//                        : new MavenDocumentSource(apiSource, this.getLog(), this.projectEncoding);
-
-                AbstractDocumentSource documentSource =
-                        apiSource.isDubbo()
-                                ? new DubboMavenDocumentSource(this.getLog(), apiSource, this.projectEncoding)
-                                : new SpringMavenDocumentSource(apiSource, this.getLog(), this.projectEncoding);
-                documentSource.loadTypesToSkip();
-                documentSource.loadModelModifier();
-                documentSource.loadModelConverters();
-                documentSource.loadDocuments();
-
-                this.createOutputDirs(apiSource.getOutputPath());
-
-                if (apiSource.getTemplatePath() != null) {
-                    documentSource.toDocuments();
-                }
-                final String swaggerFileName = this.getSwaggerFileName(apiSource.getSwaggerFileName());
-                documentSource.toSwaggerDocuments(
-                        apiSource.getSwaggerUIDocBasePath() == null
-                                ? apiSource.getBasePath()
-                                : apiSource.getSwaggerUIDocBasePath(),
-                        apiSource.getOutputFormats(), swaggerFileName, this.projectEncoding);
-
-                if (apiSource.isAttachSwaggerArtifact() && apiSource.getSwaggerDirectory() != null && this.project != null) {
-                    final String outputFormats = apiSource.getOutputFormats();
-                    if (outputFormats != null) {
-                        for (final String format : outputFormats.split(",")) {
-                            final File swaggerFile = new File(apiSource.getSwaggerDirectory(), swaggerFileName + "." + format.toLowerCase());
-                            final String classifier = swaggerFileName.equals("swagger")
-                                    ? this.getSwaggerDirectoryName(apiSource.getSwaggerDirectory())
-                                    : swaggerFileName;
-                            this.projectHelper.attachArtifact(this.project, format.toLowerCase(), classifier, swaggerFile);
+            final GenerationCache cache = this.incremental
+                    ? new GenerationCache(this.project, this.getLog())
+                    : null;
+            if (cache != null) {
+                cache.load();
+            }
 
-                        }
+            this.outputDigests = new OutputDigests(
+                    new File(this.project.getBuild()
+                                         .getDirectory(), OUTPUT_DIGESTS_FILE));
+            this.outputDigests.load();
+            this.changedFiles.clear();
+            CachingModelConverters.getInstance()
+                                  .resetStatistics();
+
+            final List<String> fingerprints = new ArrayList<>();
+            final boolean[] upToDate = this.prepareApiSources(info, cache, fingerprints);
+            if (this.threads > 1 && this.apiSources.size() > 1) {
+                this.generateInParallel(cache, fingerprints, upToDate);
+            } else {
+                for (int i = 0; i < this.apiSources.size(); i++) {
+                    final ApiSource apiSource = this.apiSources.get(i);
+                    if (upToDate[i]) {
+                        this.publishDocuments(apiSource, false);
+                        continue;
                     }
+                    final AbstractDocumentSource documentSource = this.readDocuments(apiSource);
+                    final boolean changed = this.writeDocuments(apiSource, documentSource);
+                    if (cache != null) {
+                        cache.update(this.getCacheKey(i), fingerprints.get(i));
+                    }
+                    this.publishDocuments(apiSource, changed);
                 }
-                final File swaggerFile = new File(apiSource.getSwaggerDirectory(), swaggerFileName + ".json");
-                this.notifyCallback(swaggerFile);
             }
+
+            if (cache != null) {
+                cache.save();
+                cache.report();
+            }
+            this.outputDigests.save();
+            this.saveJavaDocCache();
+            this.getLog()
+                .info(CachingModelConverters.getInstance()
+                                            .getStatistics());
+
+            new CallbackDispatcher(this.getLog(), this.callbackTimeout, this.callbackRetries, this.callbackDeadline,
+                    this.callbackGzip).dispatch(this.callbacks, this.changedFiles);
         } catch (
                 final GenerateException e)
 
@@ -197,47 +262,285 @@ public class ApiDocumentMojo extends AbstractMojo {
 
         {
             throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            // 不在执行之间保留jar的内存映射
+            this.classIndex.release();
         }
 
     }
 
-    private void notifyCallback(final File swaggerFile) {
-        if (this.callbacks == null || this.callbacks.isEmpty()) {
-            return;
-        }
+    /**
+     * 读取在构建线程上按顺序进行, ModelConverters和SwaggerExtensions是全局状态;
+     * 排序, 序列化和模板输出交给线程池, 与下一个apiSource的读取重叠.
+     * 附加构件和回调在全部写出后按配置顺序执行.
+     * 输出到同一文件的apiSource按配置顺序依次写出, 结果与顺序生成一致.
+     *
+     * @param cache        未开启增量生成时为null
+     * @param fingerprints 各apiSource的指纹
+     * @param upToDate     各apiSource是否命中缓存
+     * @throws Exception
+     */
+    private void generateInParallel(final GenerationCache cache, final List<String> fingerprints,
+                                    final boolean[] upToDate) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(this.threads, this.apiSources.size()),
+                new ThreadFactoryBuilder().setNameFormat("swagger-apisource-%d")
+                                          .setDaemon(true)
+                                          .build());
         try {
-            final String fileBody = FileUtils.readFileToString(swaggerFile, "UTF-8");
-            for (final String callback : this.callbacks) {
-                final URL httpUrl = new URL(callback);
-                final HttpURLConnection conn = (HttpURLConnection) httpUrl.openConnection();
-                conn.setRequestMethod("POST");
-                conn.setRequestProperty("Content-Type", "application/json");
-                conn.setRequestProperty("connection", "close");
-                conn.setUseCaches(false);//设置不要缓存
-                conn.setInstanceFollowRedirects(true);
-                conn.setDoOutput(true);
-                conn.setDoInput(true);
-                conn.setConnectTimeout(10000);
-                conn.setReadTimeout(10000);
-                try (
-                        OutputStreamWriter out = new OutputStreamWriter(conn.getOutputStream());
-                ) {
-                    out.write(fileBody);
-                    out.flush();
-                    out.close();
-                    conn.connect();
-                    String line = "";
-                    try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-                        while ((line = reader.readLine()) != null) {
-                            System.out.println(line);
+            final List<Future<Boolean>> writes = new ArrayList<>();
+            // 输出文件 -> 最后一个写它的任务
+            final Map<File, Future<Boolean>> lastWrites = new HashMap<>();
+            for (int i = 0; i < this.apiSources.size(); i++) {
+                final ApiSource apiSource = this.apiSources.get(i);
+                if (upToDate[i]) {
+                    // 命中缓存, 没有写出任务
+                    writes.add(null);
+                    continue;
+                }
+                final AbstractDocumentSource documentSource = this.readDocuments(apiSource);
+                final List<File> outputFiles = this.getNormalizedOutputFiles(apiSource);
+                final Set<Future<Boolean>> predecessors = new LinkedHashSet<>();
+                for (final File outputFile : outputFiles) {
+                    final Future<Boolean> predecessor = lastWrites.get(outputFile);
+                    if (predecessor != null) {
+                        predecessors.add(predecessor);
+                        this.getLog()
+                            .warn(String.format("apiSource[%d] writes %s like a previous apiSource, "
+                                    + "they will be written one after another", i, outputFile));
+                    }
+                }
+                final Future<Boolean> write = executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        // 任务按提交顺序执行, 前面的任务已经开始, 等待不会死锁
+                        for (final Future<Boolean> predecessor : predecessors) {
+                            predecessor.get();
                         }
+                        return ApiDocumentMojo.this.writeDocuments(apiSource, documentSource);
                     }
+                });
+                writes.add(write);
+                for (final File outputFile : outputFiles) {
+                    lastWrites.put(outputFile, write);
+                }
+            }
+
+            for (int i = 0; i < writes.size(); i++) {
+                final Future<Boolean> write = writes.get(i);
+                if (write == null) {
+                    this.publishDocuments(this.apiSources.get(i), false);
+                    continue;
+                }
+                final boolean changed;
+                try {
+                    changed = write.get();
+                } catch (final ExecutionException e) {
+                    if (e.getCause() instanceof Exception) {
+                        throw (Exception) e.getCause();
+                    }
+                    throw e;
+                }
+                if (cache != null) {
+                    cache.update(this.getCacheKey(i), fingerprints.get(i));
+                }
+                this.publishDocuments(this.apiSources.get(i), changed);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 补全所有apiSource的配置, 计算指纹并判断哪些可以跳过
+     *
+     * @param info
+     * @param cache        未开启增量生成时为null
+     * @param fingerprints 输出各apiSource的指纹
+     * @return 各apiSource是否命中缓存
+     * @throws GenerateException
+     */
+    private boolean[] prepareApiSources(final Info info, final GenerationCache cache, final List<String> fingerprints)
+            throws GenerateException {
+        final List<String> keys = new ArrayList<>();
+        final List<List<File>> outputs = new ArrayList<>();
+        for (int i = 0; i < this.apiSources.size(); i++) {
+            final ApiSource apiSource = this.apiSources.get(i);
+            this.prepareApiSource(apiSource, info);
+            fingerprints.add(this.fingerprint(cache, apiSource));
+            keys.add(this.getCacheKey(i));
+            outputs.add(this.getNormalizedOutputFiles(apiSource));
+        }
+        if (cache == null) {
+            return new boolean[this.apiSources.size()];
+        }
+        return cache.getUpToDate(keys, fingerprints, outputs);
+    }
+
+    private void prepareApiSource(final ApiSource apiSource, final Info info) throws GenerateException {
+        apiSource.setSpringmvc(true); //肯定是mvc
+        apiSource.setInfo(info);
+        apiSource.setOutputFormats("json");
+        apiSource.setSwaggerDirectory("./swagger");
+        apiSource.setClassIndex(this.classIndex);
+
+        this.validateConfiguration(apiSource);
+    }
+
+    private String getCacheKey(final int index) {
+        return "apiSource." + index;
+    }
+
+    private String fingerprint(final GenerationCache cache, final ApiSource apiSource) {
+        if (cache == null) {
+            return null;
+        }
+        return cache.fingerprint(apiSource, this.pluginVersion, this.enabledObjectMapperFeatures,
+                this.disabledObjectMapperFeatures, this.projectEncoding);
+    }
+
+    /**
+     * apiSource生成的文件
+     *
+     * @param apiSource
+     * @return
+     */
+    private List<File> getOutputFiles(final ApiSource apiSource) {
+        final List<File> files = new ArrayList<>();
+        final String swaggerFileName = this.getSwaggerFileName(apiSource.getSwaggerFileName());
+        if (apiSource.getOutputFormats() != null) {
+            for (final String format : apiSource.getOutputFormats().split(",")) {
+                files.add(new File(apiSource.getSwaggerDirectory(), swaggerFileName + "." + format.trim().toLowerCase()));
+            }
+        }
+        if (apiSource.getTemplatePath() != null && apiSource.getOutputPath() != null) {
+            files.add(new File(apiSource.getOutputPath()));
+        }
+        return files;
+    }
+
+    private List<File> getNormalizedOutputFiles(final ApiSource apiSource) {
+        final List<File> files = new ArrayList<>();
+        for (final File file : this.getOutputFiles(apiSource)) {
+            files.add(file.getAbsoluteFile()
+                          .toPath()
+                          .normalize()
+                          .toFile());
+        }
+        return files;
+    }
+
+    /**
+     * 第一个未命中缓存的apiSource读取前才建立索引, 全部命中时不扫描classpath
+     */
+    private void ensureIndexed() {
+        if (this.indexed) {
+            return;
+        }
+
+        // 增加java doc
+        JavaDoc.getInstance()
+               .init(this.project, this.lazyJavaDoc, this.getLog());
+
+        // 所有apiSource共享一份类索引
+        this.classIndex.index(this.getAllLocations());
+        this.indexed = true;
+    }
+
+    private AbstractDocumentSource readDocuments(final ApiSource apiSource) throws Exception {
+        this.ensureIndexed();
+
+        // 使用spring
+//        final AbstractDocumentSource documentSource = apiSource.isSpringmvc()
+//                ? new SpringMavenDocumentSource(apiSource, this.getLog(), this.projectEncoding)
+//                : new MavenDocumentSource(apiSource, this.getLog(), this.projectEncoding);
+
+        final AbstractDocumentSource documentSource =
+                apiSource.isDubbo()
+                        ? new DubboMavenDocumentSource(this.getLog(), apiSource, this.projectEncoding)
+                        : new SpringMavenDocumentSource(apiSource, this.getLog(), this.projectEncoding);
+        documentSource.setOutputDigests(this.outputDigests);
+        try {
+            documentSource.loadTypesToSkip();
+            documentSource.loadModelModifier();
+            documentSource.loadModelConverters();
+            documentSource.loadDocuments();
+        } finally {
+            documentSource.unloadModelConverters();
+        }
+        return documentSource;
+    }
+
+    /**
+     * @return 是否有输出文件的内容发生变化
+     */
+    private boolean writeDocuments(final ApiSource apiSource, final AbstractDocumentSource documentSource) throws Exception {
+        this.createOutputDirs(apiSource.getOutputPath());
+
+        if (apiSource.getTemplatePath() != null) {
+            documentSource.toDocuments();
+        }
+        final String swaggerFileName = this.getSwaggerFileName(apiSource.getSwaggerFileName());
+        documentSource.toSwaggerDocuments(
+                apiSource.getSwaggerUIDocBasePath() == null
+                        ? apiSource.getBasePath()
+                        : apiSource.getSwaggerUIDocBasePath(),
+                apiSource.getOutputFormats(), swaggerFileName, this.projectEncoding);
+        return documentSource.isOutputChanged();
+    }
+
+    /**
+     * @param apiSource
+     * @param changed 文件内容是否变化, 未变化(包括命中缓存)时不触发回调
+     */
+    private void publishDocuments(final ApiSource apiSource, final boolean changed) {
+        final String swaggerFileName = this.getSwaggerFileName(apiSource.getSwaggerFileName());
+        if (apiSource.isAttachSwaggerArtifact() && apiSource.getSwaggerDirectory() != null && this.project != null) {
+            final String outputFormats = apiSource.getOutputFormats();
+            if (outputFormats != null) {
+                for (final String format : outputFormats.split(",")) {
+                    final File swaggerFile = new File(apiSource.getSwaggerDirectory(), swaggerFileName + "." + format.toLowerCase());
+                    final String classifier = swaggerFileName.equals("swagger")
+                            ? this.getSwaggerDirectoryName(apiSource.getSwaggerDirectory())
+                            : swaggerFileName;
+                    this.projectHelper.attachArtifact(this.project, format.toLowerCase(), classifier, swaggerFile);
+
                 }
-                conn.disconnect();
             }
+        }
+        if (changed) {
+            this.changedFiles.add(new File(apiSource.getSwaggerDirectory(), swaggerFileName + ".json"));
+        }
+    }
+
+    private void saveJavaDocCache() {
+        if (!this.indexed) {
+            return;
+        }
+        try {
+            JavaDoc.getInstance()
+                   .saveCache();
         } catch (final IOException e) {
-            e.printStackTrace();
+            this.getLog()
+                .warn("Unable to save javadoc cache: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 汇总所有apiSource的扫描路径, 没有配置locations的apiSource扫描整个classpath
+     *
+     * @return
+     */
+    private List<String> getAllLocations() {
+        final List<String> locations = new ArrayList<>();
+        for (final ApiSource apiSource : this.apiSources) {
+            if (apiSource.getLocations() == null) {
+                locations.add("");
+            } else {
+                locations.addAll(apiSource.getLocations());
+            }
         }
+        return locations;
     }
 
     private void createOutputDirs(final String outputPath) throws MojoExecutionException {
@@ -1,6 +1,7 @@
 package com.github.kongchen.swagger.docgen.mavenplugin;
 
 import com.github.kongchen.swagger.docgen.ResponseMessageOverride;
+import com.github.kongchen.swagger.docgen.scan.ClassIndex;
 import com.google.common.base.Strings;
 import io.swagger.annotations.SwaggerDefinition;
 import io.swagger.models.Contact;
@@ -10,7 +11,6 @@ import io.swagger.models.License;
 import io.swagger.util.BaseReaderUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugins.annotations.Parameter;
-import org.reflections.Reflections;
 import org.springframework.core.annotation.AnnotationUtils;
 
 import java.io.File;
@@ -149,12 +149,23 @@ public class ApiSource {
     @Parameter
     private String operationIdFormat;
 
+    /**
+     * 解析接口的线程数, 大于1时各资源并行解析
+     */
+    @Parameter
+    private int readerThreads = 1;
+
     @Parameter
     private ExternalDocs externalDocs;
 
     @Parameter
     private List<ResponseMessageOverride> responseMessageOverrides;
 
+    /**
+     * 本次执行的类索引, 由mojo设置, 不是配置项
+     */
+    private ClassIndex classIndex;
+
     public String getDefaultRequestMethod() {
         return defaultRequestMethod;
     }
@@ -170,25 +181,21 @@ public class ApiSource {
      * @return
      */
     public Set<Class<?>> getValidClasses(Class<? extends Annotation> clazz) {
-        Set<Class<?>> classes = new LinkedHashSet<Class<?>>();
+        return getClassIndex().getTypesAnnotatedWith(clazz, getLocations(), !skipInheritingClasses);
+    }
 
-        List<String> prefixes = new ArrayList<String>();
-        if (getLocations() == null) {
-            prefixes.add("");
-        } else {
-            prefixes.addAll(getLocations());
+    /**
+     * @return 本次执行的类索引, 没有设置时创建一个只给该apiSource使用的索引
+     */
+    public synchronized ClassIndex getClassIndex() {
+        if (classIndex == null) {
+            classIndex = new ClassIndex(null);
         }
+        return classIndex;
+    }
 
-        for (String location : prefixes) {
-            Set<Class<?>> c = new Reflections(location).getTypesAnnotatedWith(clazz, true);
-            classes.addAll(c);
-
-            if (!skipInheritingClasses) {
-                Set<Class<?>> inherited = new Reflections(location).getTypesAnnotatedWith(clazz);
-                classes.addAll(inherited);
-            }
-        }
-        return classes;
+    public synchronized void setClassIndex(ClassIndex classIndex) {
+        this.classIndex = classIndex;
     }
 
     public List<String> getApiModelPropertyAccessExclusions() {
@@ -509,6 +516,14 @@ public class ApiSource {
         this.operationIdFormat = operationIdFormat;
     }
 
+    public int getReaderThreads() {
+        return readerThreads;
+    }
+
+    public void setReaderThreads(int readerThreads) {
+        this.readerThreads = readerThreads;
+    }
+
     private String emptyToNull(String str) {
         return StringUtils.isEmpty(str) ? null : str;
     }
@@ -0,0 +1,188 @@
+package com.github.kongchen.swagger.docgen.mavenplugin;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 生成回调
+ * <p>
+ * 所有apiSource的文件和所有回调地址作为一批并发发送, 文件内容以流的方式(可选gzip)上传,
+ * 每个地址单独超时, 只在连接失败或5xx时有限次重试(请求可能已被处理时不重发), 整批共用一个截止时间.
+ * 流式上传的内容无法重放, 不跟随重定向.
+ */
+public class CallbackDispatcher {
+
+    private static final int RETRY_BACKOFF_MILLIS = 500;
+
+    private static final int MAX_THREADS = 16;
+
+    private final Log log;
+
+    private final int timeout;
+
+    private final int retries;
+
+    private final long deadline;
+
+    private final boolean gzip;
+
+    /**
+     * @param log
+     * @param timeout  每个地址的连接和读取超时(毫秒)
+     * @param retries  失败后的重试次数
+     * @param deadline 整批回调的截止时间(毫秒)
+     * @param gzip     是否以gzip压缩上传
+     */
+    public CallbackDispatcher(Log log, int timeout, int retries, long deadline, boolean gzip) {
+        this.log = log;
+        this.timeout = timeout;
+        this.retries = Math.max(0, retries);
+        this.deadline = deadline;
+        this.gzip = gzip;
+    }
+
+    /**
+     * 发送回调, 失败只记录日志, 不影响构建
+     *
+     * @param callbacks 回调地址
+     * @param files     需要通知的文件
+     */
+    public void dispatch(List<String> callbacks, List<File> files) {
+        if (callbacks == null || callbacks.isEmpty() || files.isEmpty()) {
+            return;
+        }
+
+        final List<String> names = new ArrayList<>();
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+        for (final File file : files) {
+            for (final String callback : callbacks) {
+                names.add(callback + " <- " + file.getName());
+                tasks.add(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        return CallbackDispatcher.this.sendWithRetry(callback, file);
+                    }
+                });
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(tasks.size(), MAX_THREADS),
+                new ThreadFactoryBuilder().setNameFormat("swagger-callback-%d")
+                                          .setDaemon(true)
+                                          .build());
+        try {
+            long start = System.currentTimeMillis();
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (Callable<Integer> task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            long end = start + deadline;
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    futures.get(i)
+                           .get(Math.max(0, end - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    futures.get(i)
+                           .cancel(true);
+                    log.warn(String.format("Callback %s did not finish within %d ms", names.get(i), deadline));
+                } catch (ExecutionException e) {
+                    log.warn(String.format("Callback %s failed: %s", names.get(i), e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                          .interrupt();
+                    return;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int sendWithRetry(String callback, File file) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.currentTimeMillis();
+            try {
+                int status = this.send(callback, file);
+                long latency = System.currentTimeMillis() - start;
+                if (status < 500 || attempt > retries) {
+                    log.info(String.format("Callback %s responded %d in %d ms (attempt %d)", callback, status, latency,
+                            attempt));
+                    return status;
+                }
+                log.debug(String.format("Callback %s responded %d in %d ms, retrying", callback, status, latency));
+            } catch (ConnectFailedException e) {
+                if (attempt > retries) {
+                    throw e;
+                }
+                log.debug(String.format("Callback %s failed after %d ms, retrying: %s", callback,
+                        System.currentTimeMillis() - start, e.getMessage()));
+            }
+            Thread.sleep((long) RETRY_BACKOFF_MILLIS * attempt);
+        }
+    }
+
+    private int send(String callback, File file) throws IOException {
+        HttpURLConnection conn = (HttpURLConnection) new URL(callback).openConnection();
+        try {
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("Content-Type", "application/json");
+            conn.setRequestProperty("connection", "close");
+            if (gzip) {
+                conn.setRequestProperty("Content-Encoding", "gzip");
+                conn.setChunkedStreamingMode(0);
+            } else {
+                conn.setFixedLengthStreamingMode(file.length());
+            }
+            conn.setUseCaches(false);//设置不要缓存
+            conn.setInstanceFollowRedirects(false);
+            conn.setDoOutput(true);
+            conn.setDoInput(true);
+            conn.setConnectTimeout(timeout);
+            conn.setReadTimeout(timeout);
+
+            try {
+                conn.connect();
+            } catch (IOException e) {
+                throw new ConnectFailedException(e);
+            }
+
+            try (OutputStream out = gzip
+                    ? new GZIPOutputStream(conn.getOutputStream())
+                    : conn.getOutputStream()) {
+                Files.copy(file.toPath(), out);
+            }
+
+            int status = conn.getResponseCode();
+            InputStream body = status < 400 ? conn.getInputStream() : conn.getErrorStream();
+            if (body != null) {
+                try (InputStream in = body) {
+                    log.debug(String.format("Callback %s response: %s", callback, IOUtils.toString(in, "UTF-8")));
+                }
+            }
+            return status;
+        } finally {
+            conn.disconnect();
+        }
+    }
+
+    /**
+     * 连接失败, 请求还没有发出, 可以重试
+     */
+    private static class ConnectFailedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ConnectFailedException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+}
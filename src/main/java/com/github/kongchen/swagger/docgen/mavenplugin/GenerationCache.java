@@ -0,0 +1,339 @@
+package com.github.kongchen.swagger.docgen.mavenplugin;
+
+import com.github.kongchen.swagger.docgen.AbstractDocumentSource;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.builder.RecursiveToStringStyle;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * 增量生成缓存
+ * <p>
+ * 以扫描的class文件, 依赖jar, apiSource配置及其引用的模板和modelSubstitute文件计算指纹,
+ * 指纹与上次生成一致且输出文件仍然存在时, 该apiSource跳过读取和写出.
+ * 写同一个文件的apiSource一起判断, 见{@link #getUpToDate}.
+ */
+public class GenerationCache {
+
+    private static final String CACHE_FILE = "swagger-maven-plugin/generate.cache";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String CLASSPATH = "classpath:";
+
+    private final MavenProject project;
+
+    private final Log log;
+
+    private final File file;
+
+    private final Properties entries = new Properties();
+
+    private String classpathFingerprint;
+
+    private int hits;
+
+    private int misses;
+
+    public GenerationCache(MavenProject project, Log log) {
+        this.project = project;
+        this.log = log;
+        this.file = new File(project.getBuild().getDirectory(), CACHE_FILE);
+    }
+
+    public void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            entries.load(in);
+        } catch (IOException e) {
+            log.warn(String.format("Ignoring unreadable swagger cache %s: %s", file, e.getMessage()));
+            entries.clear();
+        }
+    }
+
+    public void save() throws IOException {
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException(String.format("Create directory [%s] for swagger cache failed.", dir));
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            entries.store(out, null);
+        }
+    }
+
+    /**
+     * 计算apiSource的指纹
+     *
+     * @param apiSource 已经补全配置的apiSource
+     * @param settings  影响输出的插件级配置
+     * @return 无法计算时返回null, 视为未命中
+     */
+    public String fingerprint(ApiSource apiSource, Object... settings) {
+        String classpath = getClasspathFingerprint();
+        if (classpath == null) {
+            return null;
+        }
+        MessageDigest digest = newDigest();
+        update(digest, classpath);
+        update(digest, new ReflectionToStringBuilder(apiSource, new FingerprintStyle()).toString());
+        for (Object setting : settings) {
+            update(digest, String.valueOf(setting));
+        }
+        try {
+            File descriptionFile = apiSource.getDescriptionFile();
+            if (descriptionFile != null && descriptionFile.isFile()) {
+                digest.update(Files.readAllBytes(descriptionFile.toPath()));
+            }
+            digestTemplate(digest, apiSource.getTemplatePath());
+            // 与AbstractDocumentSource.loadModelModifier的查找方式一致
+            digestResource(digest, apiSource.getModelSubstitute() == null
+                    ? null
+                    : AbstractDocumentSource.class.getResource(apiSource.getModelSubstitute()), null);
+        } catch (IOException | URISyntaxException e) {
+            log.debug("Swagger cache miss, fingerprint failed: " + e.getMessage());
+            return null;
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * 写同一个文件的apiSource作为一个整体: 其中任一未命中时全部重新生成,
+     * 否则跳过的apiSource会保留前一个apiSource写出的内容, 与完整生成(最后写出的生效)不一致.
+     *
+     * @param keys         apiSource在缓存中的key
+     * @param fingerprints 当前指纹
+     * @param outputs      各apiSource生成的文件(已规范化), 任一不存在都视为未命中
+     * @return 各apiSource是否可以跳过
+     */
+    public boolean[] getUpToDate(List<String> keys, List<String> fingerprints, List<List<File>> outputs) {
+        boolean[] upToDate = new boolean[keys.size()];
+        Set<File> stale = new HashSet<>();
+        for (int i = 0; i < upToDate.length; i++) {
+            upToDate[i] = isUpToDate(keys.get(i), fingerprints.get(i), outputs.get(i));
+            if (!upToDate[i]) {
+                stale.addAll(outputs.get(i));
+            }
+        }
+
+        // 重新生成的apiSource又会覆盖它写的其他文件, 直到没有新的未命中
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 0; i < upToDate.length; i++) {
+                if (upToDate[i] && !Collections.disjoint(stale, outputs.get(i))) {
+                    upToDate[i] = false;
+                    stale.addAll(outputs.get(i));
+                    changed = true;
+                    log.debug(String.format("Swagger cache miss for %s, it shares output files with a regenerated "
+                            + "apiSource", keys.get(i)));
+                }
+            }
+        }
+
+        for (int i = 0; i < upToDate.length; i++) {
+            if (upToDate[i]) {
+                hits++;
+                log.info(String.format("Swagger cache hit for %s, skipping generation", keys.get(i)));
+            } else {
+                misses++;
+            }
+        }
+        return upToDate;
+    }
+
+    private boolean isUpToDate(String key, String fingerprint, List<File> outputs) {
+        boolean upToDate = fingerprint != null && fingerprint.equals(entries.getProperty(key));
+        if (upToDate) {
+            for (File output : outputs) {
+                if (!output.isFile()) {
+                    upToDate = false;
+                    break;
+                }
+            }
+        }
+        if (!upToDate) {
+            log.debug(String.format("Swagger cache miss for %s", key));
+        }
+        return upToDate;
+    }
+
+    public void update(String key, String fingerprint) {
+        if (fingerprint == null) {
+            entries.remove(key);
+        } else {
+            entries.setProperty(key, fingerprint);
+        }
+    }
+
+    public void report() {
+        log.info(String.format("Swagger cache: %d hit(s), %d miss(es)", hits, misses));
+    }
+
+    /**
+     * 所有apiSource共享的部分: 编译输出目录和源码(javadoc)按内容, 依赖jar按路径/大小/修改时间
+     */
+    private String getClasspathFingerprint() {
+        if (classpathFingerprint != null) {
+            return classpathFingerprint;
+        }
+        List<?> elements;
+        try {
+            elements = project.getCompileClasspathElements();
+        } catch (DependencyResolutionRequiredException e) {
+            log.warn("Swagger cache disabled, dependencies are not resolved: " + e.getMessage());
+            return null;
+        }
+
+        MessageDigest digest = newDigest();
+        try {
+            for (Object element : elements) {
+                digestPath(digest, Paths.get(String.valueOf(element)), ".class");
+            }
+            for (Object root : project.getCompileSourceRoots()) {
+                digestPath(digest, Paths.get(String.valueOf(root)), ".java");
+            }
+        } catch (IOException e) {
+            log.warn("Swagger cache disabled, classpath fingerprint failed: " + e.getMessage());
+            return null;
+        }
+        classpathFingerprint = toHex(digest.digest());
+        return classpathFingerprint;
+    }
+
+    /**
+     * 模板可能引用同目录下的其他模板(partial), 文件系统中的模板连同目录下同后缀的文件一起计算
+     */
+    private static void digestTemplate(MessageDigest digest, String templatePath) throws IOException,
+            URISyntaxException {
+        if (templatePath == null) {
+            return;
+        }
+        String suffix = templatePath.lastIndexOf('.') < 0 ? "" : templatePath.substring(templatePath.lastIndexOf('.'));
+        if (templatePath.startsWith(CLASSPATH)) {
+            digestResource(digest, GenerationCache.class.getResource(templatePath.substring(CLASSPATH.length())),
+                    suffix);
+        } else {
+            digestResource(digest, new File(templatePath).toURI()
+                                                         .toURL(), suffix);
+        }
+    }
+
+    /**
+     * @param resource 不存在时为null
+     * @param suffix   不为null时计算resource所在目录中该后缀的所有文件
+     */
+    private static void digestResource(MessageDigest digest, URL resource, String suffix) throws IOException,
+            URISyntaxException {
+        if (resource == null) {
+            update(digest, "");
+            return;
+        }
+        update(digest, resource.toExternalForm());
+        if ("file".equals(resource.getProtocol())) {
+            Path path = Paths.get(resource.toURI());
+            if (suffix != null && Files.isRegularFile(path) && path.getParent() != null) {
+                digestPath(digest, path.getParent(), suffix);
+            } else if (Files.isRegularFile(path)) {
+                digest.update(Files.readAllBytes(path));
+            }
+            return;
+        }
+        try (InputStream in = resource.openStream()) {
+            digest.update(IOUtils.toByteArray(in));
+        }
+    }
+
+    private static void digestPath(MessageDigest digest, Path path, String suffix) throws IOException {
+        if (Files.isDirectory(path)) {
+            List<Path> files = new ArrayList<>();
+            try (java.util.stream.Stream<Path> stream = Files.walk(path)) {
+                Iterator<Path> iterator = stream.iterator();
+                while (iterator.hasNext()) {
+                    Path file = iterator.next();
+                    if (file.getFileName().toString().endsWith(suffix) && Files.isRegularFile(file)) {
+                        files.add(file);
+                    }
+                }
+            }
+            Collections.sort(files);
+            for (Path file : files) {
+                update(digest, path.relativize(file).toString());
+                digest.update(Files.readAllBytes(file));
+            }
+        } else if (Files.isRegularFile(path)) {
+            File file = path.toFile();
+            update(digest, file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified());
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 递归输出配置的字段值, 不包含对象的identity hash
+     */
+    private static class FingerprintStyle extends RecursiveToStringStyle {
+        private static final long serialVersionUID = 1L;
+
+        FingerprintStyle() {
+            setUseIdentityHashCode(false);
+        }
+
+        @Override
+        public void appendDetail(StringBuffer buffer, String fieldName, Object value) {
+            // e.g. the ObjectMapper held by SecurityDefinition, its default toString is not stable between builds
+            if (!accept(value.getClass()) && !hasOwnToString(value.getClass())) {
+                buffer.append(value.getClass().getName());
+                return;
+            }
+            super.appendDetail(buffer, fieldName, value);
+        }
+
+        @Override
+        protected boolean accept(Class<?> clazz) {
+            return clazz.getName().startsWith("com.github.kongchen.")
+                    || clazz.getName().startsWith("io.swagger.models.");
+        }
+
+        private static boolean hasOwnToString(Class<?> clazz) {
+            try {
+                return clazz.getMethod("toString").getDeclaringClass() != Object.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -28,6 +28,9 @@ public class MavenDocumentSource extends AbstractDocumentSource<JaxrsReader> {
 
     @Override
     protected JaxrsReader createReader() {
-        return new JaxrsReader(swagger, LOG);
+        JaxrsReader reader = new JaxrsReader(swagger, LOG);
+        reader.setTagLocations(apiSource.getLocations());
+        reader.setClassIndex(apiSource.getClassIndex());
+        return reader;
     }
 }
@@ -1,5 +1,6 @@
 package com.github.kongchen.swagger.docgen.reader;
 
+import com.github.kongchen.swagger.docgen.GenerateException;
 import com.github.kongchen.swagger.docgen.ResponseMessageOverride;
 import com.github.kongchen.swagger.docgen.util.TypeExtracter;
 import com.github.kongchen.swagger.docgen.util.TypeWithAnnotations;
@@ -8,7 +9,6 @@ import com.github.kongchen.swagger.docgen.validation.ValidationExtractor;
 import com.google.common.collect.Lists;
 import com.sun.jersey.api.core.InjectParam;
 import io.swagger.annotations.*;
-import io.swagger.converter.ModelConverters;
 import io.swagger.jaxrs.ext.SwaggerExtension;
 import io.swagger.jaxrs.ext.SwaggerExtensions;
 import io.swagger.models.*;
@@ -26,13 +26,17 @@ import org.apache.commons.lang3.text.StrBuilder;
 import org.apache.maven.plugin.logging.Log;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.web.bind.annotation.*;
-import sun.reflect.generics.reflectiveObjects.ParameterizedTypeImpl;
 
 import javax.ws.rs.*;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
 
 /**
  * @author chekong on 15/4/28.
@@ -48,6 +52,11 @@ public abstract class AbstractReader {
 
     protected ValidationExtractor validationExtractor = new SimpleValidationExtractor();
 
+    /**
+     * 解析接口的线程数, 大于1时各资源并行解析到独立的Swagger后再合并
+     */
+    protected int readerThreads = 1;
+
     /**
      * Supported parameters: {{packageName}}, {{className}}, {{methodName}}, {{httpMethod}}
      * Suggested default value is: "{{className}}_{{methodName}}_{{httpMethod}}"
@@ -78,12 +87,35 @@ public abstract class AbstractReader {
         return this.responseMessageOverrides;
     }
 
+    public int getReaderThreads() {
+        return this.readerThreads;
+    }
+
+    public void setReaderThreads(final int readerThreads) {
+        this.readerThreads = Math.max(1, readerThreads);
+    }
+
     public AbstractReader(final Swagger swagger, final Log LOG) {
         this.swagger = swagger;
         this.LOG = LOG;
         this.updateExtensionChain();
     }
 
+    /**
+     * 并行解析时使用, 复制parent的配置, 结果写入新的Swagger.
+     * 扩展链是全局的, 这里不再修改.
+     *
+     * @param parent
+     */
+    protected AbstractReader(final AbstractReader parent) {
+        this.swagger = new Swagger();
+        this.LOG = parent.LOG;
+        this.typesToSkip = parent.typesToSkip;
+        this.responseMessageOverrides = parent.responseMessageOverrides;
+        this.operationIdFormat = parent.operationIdFormat;
+        this.validationExtractor = parent.validationExtractor;
+    }
+
     /**
      * Method which allows sub-classes to modify the Swagger extension chain.
      */
@@ -170,7 +202,7 @@ public abstract class AbstractReader {
             final Class<?> cls = header.response();
 
             if (!cls.equals(Void.class) && !cls.equals(void.class)) {
-                final Property property = ModelConverters.getInstance()
+                final Property property = CachingModelConverters.getInstance()
                                                          .readAsProperty(cls);
                 if (property != null) {
                     final Property responseProperty;
@@ -204,6 +236,83 @@ public abstract class AbstractReader {
         path.set(httpMethod, operation);
     }
 
+    /**
+     * 在fork/join线程池中执行解析任务, 每个任务返回独立的Swagger, 按任务顺序合并到当前swagger,
+     * 结果与顺序解析一致.
+     *
+     * @param tasks
+     * @throws GenerateException
+     */
+    protected void readInParallel(final List<Callable<Swagger>> tasks) throws GenerateException {
+        final ClassLoader classLoader = Thread.currentThread()
+                                              .getContextClassLoader();
+        final ForkJoinPool pool = new ForkJoinPool(Math.min(this.readerThreads, tasks.size()),
+                new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+                    @Override
+                    public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+                        final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                        thread.setName("swagger-reader-" + thread.getPoolIndex());
+                        thread.setContextClassLoader(classLoader);
+                        return thread;
+                    }
+                }, null, false);
+        try {
+            final long start = System.currentTimeMillis();
+            final List<Future<Swagger>> partials = pool.invokeAll(tasks);
+            for (final Future<Swagger> partial : partials) {
+                this.merge(partial.get());
+            }
+            this.LOG.debug(String.format("Read %d resource(s) with %d thread(s) in %d ms", tasks.size(),
+                    pool.getParallelism(), System.currentTimeMillis() - start));
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof GenerateException) {
+                throw (GenerateException) cause;
+            }
+            throw new GenerateException("Read resources failed", cause);
+        } catch (final InterruptedException e) {
+            Thread.currentThread()
+                  .interrupt();
+            throw new GenerateException("Read resources interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 合并一个资源的解析结果, 冲突时与顺序解析相同, 后合并的覆盖先合并的
+     *
+     * @param partial
+     */
+    protected void merge(final Swagger partial) {
+        if (partial == null) {
+            return;
+        }
+        if (partial.getTags() != null) {
+            for (final Tag tag : partial.getTags()) {
+                this.swagger.tag(tag);
+            }
+        }
+        if (partial.getPaths() != null) {
+            for (final Map.Entry<String, Path> entry : partial.getPaths()
+                                                              .entrySet()) {
+                for (final Map.Entry<io.swagger.models.HttpMethod, Operation> operation : entry.getValue()
+                                                                            .getOperationMap()
+                                                                            .entrySet()) {
+                    this.updatePath(entry.getKey(), operation.getKey()
+                                                             .name()
+                                                             .toLowerCase(), operation.getValue());
+                }
+            }
+        }
+        if (partial.getDefinitions() != null) {
+            for (final Map.Entry<String, Model> entry : partial.getDefinitions()
+                                                               .entrySet()) {
+                this.swagger.addDefinition(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
     protected void updateTagsForOperation(final Operation operation, final ApiOperation apiOperation) {
         if (apiOperation == null) {
             return;
@@ -394,12 +503,7 @@ public abstract class AbstractReader {
                 }
                 // 如果param是body, 那么扩展验证规则进入
                 if (param != null && param instanceof BodyParameter) {
-                    if (type instanceof ParameterizedTypeImpl) {
-                        validationExtractor.extract(this.swagger, ((ParameterizedTypeImpl) type).getClass(), (BodyParameter) param);
-                    } else {
-                        validationExtractor.extract(this.swagger, (Class) type, (BodyParameter) param);
-                    }
-
+                    validationExtractor.extract(this.swagger, type, (BodyParameter) param);
                 }
             }
         }
@@ -426,20 +530,20 @@ public abstract class AbstractReader {
                     }
                 }
             } else if (this.isPrimitive(responseClass)) {
-                final Property property = ModelConverters.getInstance()
+                final Property property = CachingModelConverters.getInstance()
                                                          .readAsProperty(responseClass);
                 if (property != null) {
                     response.setSchema(RESPONSE_CONTAINER_CONVERTER.withResponseContainer(apiResponse.responseContainer(), property));
                 }
             } else {
-                Map<String, Model> models = ModelConverters.getInstance()
+                Map<String, Model> models = CachingModelConverters.getInstance()
                                                            .read(responseClass);
                 for (final String key : models.keySet()) {
                     final Property schema = new RefProperty().asDefault(key);
                     response.setSchema(RESPONSE_CONTAINER_CONVERTER.withResponseContainer(apiResponse.responseContainer(), schema));
                     this.swagger.model(key, models.get(key));
                 }
-                models = ModelConverters.getInstance()
+                models = CachingModelConverters.getInstance()
                                         .readAll(responseClass);
                 for (final Map.Entry<String, Model> entry : models.entrySet()) {
                     this.swagger.model(entry.getKey(), entry.getValue());
@@ -0,0 +1,250 @@
+package com.github.kongchen.swagger.docgen.reader;
+
+import com.fasterxml.jackson.databind.JavaType;
+import io.swagger.converter.ModelConverters;
+import io.swagger.models.Model;
+import io.swagger.models.properties.Property;
+import io.swagger.util.Json;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ModelConverters的解析缓存
+ * <p>
+ * 以JavaType为key缓存read/readAll的结果, 同一个返回类型在多个接口中只解析一次.
+ * ModelConverter或ModelModifier的替换规则变化时必须调用{@link #invalidate()}.
+ * 调用方会修改返回的Model(例如补充属性, 注释和验证规则), 并行解析时多个swagger同时持有这些Model,
+ * 所以read/readAll每次返回缓存结果的深拷贝, 缓存的实例不会交给调用方;
+ * readAsProperty的结果会被调用方修改(例如header的description), 每次重新解析,
+ * 缓存的Property只用于{@link #readPropertyType(Type)}, 不会交给调用方.
+ */
+public final class CachingModelConverters {
+    private static final CachingModelConverters instance = new CachingModelConverters();
+
+    public static CachingModelConverters getInstance() {
+        return instance;
+    }
+
+    private final Map<JavaType, Map<String, Model>> models = new ConcurrentHashMap<>();
+
+    private final Map<JavaType, Map<String, Model>> allModels = new ConcurrentHashMap<>();
+
+    private final Map<JavaType, Optional<Property>> properties = new ConcurrentHashMap<>();
+
+    /**
+     * 类 -> 深拷贝时复制的字段
+     */
+    private static final Map<Class<?>, List<Field>> copiedFields = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile boolean customized;
+
+    private CachingModelConverters() {
+    }
+
+    public Map<String, Model> read(Type type) {
+        JavaType key = Json.mapper()
+                           .constructType(type);
+        Map<String, Model> result = models.get(key);
+        if (result == null) {
+            misses.incrementAndGet();
+            result = new LinkedHashMap<>(ModelConverters.getInstance()
+                                                        .read(type));
+            models.put(key, result);
+        } else {
+            hits.incrementAndGet();
+        }
+        return copy(result);
+    }
+
+    public Map<String, Model> readAll(Type type) {
+        JavaType key = Json.mapper()
+                           .constructType(type);
+        Map<String, Model> result = allModels.get(key);
+        if (result == null) {
+            misses.incrementAndGet();
+            result = new LinkedHashMap<>(ModelConverters.getInstance()
+                                                        .readAll(type));
+            allModels.put(key, result);
+        } else {
+            hits.incrementAndGet();
+        }
+        return copy(result);
+    }
+
+    public Property readAsProperty(Type type) {
+        return ModelConverters.getInstance()
+                              .readAsProperty(type);
+    }
+
+    /**
+     * 只读取类型, 不复制Property
+     *
+     * @param type
+     * @return readAsProperty结果的type, 无法解析时返回null
+     */
+    public String readPropertyType(Type type) {
+        Optional<Property> result = resolveProperty(type);
+        return result.isPresent() ? result.get()
+                                          .getType() : null;
+    }
+
+    private Optional<Property> resolveProperty(Type type) {
+        JavaType key = Json.mapper()
+                           .constructType(type);
+        Optional<Property> result = properties.get(key);
+        if (result == null) {
+            misses.incrementAndGet();
+            result = Optional.ofNullable(ModelConverters.getInstance()
+                                                        .readAsProperty(type));
+            properties.put(key, result);
+        } else {
+            hits.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * @param models 缓存的解析结果, 不会被修改
+     * @return 深拷贝, 同一结果中共享的对象在拷贝中仍然共享
+     */
+    private static Map<String, Model> copy(Map<String, Model> models) {
+        Map<Object, Object> copies = new IdentityHashMap<>();
+        Map<String, Model> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Model> entry : models.entrySet()) {
+            result.put(entry.getKey(), (Model) copy(entry.getValue(), copies));
+        }
+        return result;
+    }
+
+    /**
+     * 复制swagger的模型对象(包括自定义ModelConverter返回的Model和Property)以及其中的集合,
+     * 字符串, 数字, 枚举和example等其他值不可变或不会被修改, 直接共享
+     */
+    @SuppressWarnings("unchecked")
+    private static Object copy(Object value, Map<Object, Object> copies) {
+        if (value == null) {
+            return null;
+        }
+        Object copy = copies.get(value);
+        if (copy != null) {
+            return copy;
+        }
+
+        if (value instanceof Map) {
+            Map<Object, Object> map = value instanceof SortedMap
+                    ? new TreeMap<>(((SortedMap<Object, Object>) value).comparator())
+                    : new LinkedHashMap<>();
+            copies.put(value, map);
+            for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) value).entrySet()) {
+                map.put(entry.getKey(), copy(entry.getValue(), copies));
+            }
+            return map;
+        }
+        if (value instanceof Collection) {
+            Collection<Object> collection = value instanceof SortedSet
+                    ? new TreeSet<>(((SortedSet<Object>) value).comparator())
+                    : value instanceof Set ? new LinkedHashSet<>() : new ArrayList<>();
+            copies.put(value, collection);
+            for (Object element : (Collection<Object>) value) {
+                collection.add(copy(element, copies));
+            }
+            return collection;
+        }
+
+        Class<?> cls = value.getClass();
+        if (cls.isEnum() || !(value instanceof Model || value instanceof Property || cls.getName()
+                                                                                        .startsWith("io.swagger.models."))) {
+            return value;
+        }
+        try {
+            Constructor<?> constructor = cls.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            copy = constructor.newInstance();
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 没有无参构造的类型(例如GenericRef)都是不可变的
+            return value;
+        }
+        copies.put(value, copy);
+        try {
+            for (Field field : getCopiedFields(cls)) {
+                field.set(copy, copy(field.get(value), copies));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return copy;
+    }
+
+    private static List<Field> getCopiedFields(Class<?> cls) {
+        List<Field> fields = copiedFields.get(cls);
+        if (fields == null) {
+            fields = new ArrayList<>();
+            for (Class<?> current = cls; current != null && current != Object.class; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            copiedFields.put(cls, fields);
+        }
+        return fields;
+    }
+
+    /**
+     * 清空缓存, ModelConverter注册/注销以及类型替换规则变化时调用
+     */
+    public void invalidate() {
+        models.clear();
+        allModels.clear();
+        properties.clear();
+        generation.incrementAndGet();
+    }
+
+    /**
+     * @return 每次invalidate后递增, 依赖解析结果的其他缓存据此判断是否失效
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @return 是否注册了自定义ModelConverter或类型替换, 此时JDK类型的解析结果也可能被改变
+     */
+    public boolean isCustomized() {
+        return customized;
+    }
+
+    public void setCustomized(boolean customized) {
+        this.customized = customized;
+        invalidate();
+    }
+
+    /**
+     * @return 命中率统计
+     */
+    public String getStatistics() {
+        long hit = hits.get();
+        long total = hit + misses.get();
+        return String.format("Model resolution cache: %d hit(s), %d miss(es), hit rate %.1f%%", hit, total - hit,
+                total == 0 ? 0.0 : hit * 100.0 / total);
+    }
+
+    public void resetStatistics() {
+        hits.set(0);
+        misses.set(0);
+    }
+}
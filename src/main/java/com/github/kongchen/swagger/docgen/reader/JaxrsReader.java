@@ -15,6 +15,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
@@ -29,20 +30,20 @@ import javax.ws.rs.Produces;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.plugin.logging.Log;
-import org.reflections.Reflections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.AnnotationUtils;
 
+import com.github.kongchen.swagger.docgen.GenerateException;
 import com.github.kongchen.swagger.docgen.jaxrs.BeanParamInjectParamExtension;
 import com.github.kongchen.swagger.docgen.jaxrs.JaxrsParameterExtension;
+import com.github.kongchen.swagger.docgen.scan.ClassIndex;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponses;
 import io.swagger.annotations.Authorization;
 import io.swagger.annotations.AuthorizationScope;
 import io.swagger.annotations.SwaggerDefinition;
-import io.swagger.converter.ModelConverters;
 import io.swagger.jaxrs.ext.SwaggerExtension;
 import io.swagger.jaxrs.ext.SwaggerExtensions;
 import io.swagger.jersey.SwaggerJerseyJaxrs;
@@ -67,8 +68,47 @@ public class JaxrsReader extends AbstractReader implements ClassSwaggerReader {
     private static final Logger LOGGER = LoggerFactory.getLogger(JaxrsReader.class);
     private static final ResponseContainerConverter RESPONSE_CONTAINER_CONVERTER = new ResponseContainerConverter();
 
+    /**
+     * 并行解析时当前线程正在使用的reader, 扩展链是全局的, BeanParam展开需要写入当前reader的swagger
+     */
+    private final ThreadLocal<JaxrsReader> activeReader;
+
+    /**
+     * 搜索@SwaggerDefinition的包, null表示整个classpath
+     */
+    private List<String> tagLocations;
+
+    /**
+     * 搜索@SwaggerDefinition使用的类索引
+     */
+    private ClassIndex classIndex;
+
+    /**
+     * SwaggerDefinition注解中定义的tag, 每次read只搜索一次
+     */
+    private volatile Map<String, Tag> discoveredTags;
+
   public JaxrsReader(Swagger swagger, Log LOG) {
         super(swagger, LOG);
+        this.activeReader = new ThreadLocal<>();
+    }
+
+    private JaxrsReader(JaxrsReader parent) {
+        super(parent);
+        this.activeReader = parent.activeReader;
+        this.tagLocations = parent.tagLocations;
+        this.classIndex = parent.classIndex;
+        this.discoveredTags = parent.getDiscoveredTags();
+    }
+
+    public void setTagLocations(List<String> tagLocations) {
+        this.tagLocations = tagLocations;
+        this.discoveredTags = null;
+    }
+
+    public void setClassIndex(ClassIndex classIndex) {
+        this.classIndex = classIndex;
+        this.discoveredTags = null;
     }
 
     @Override
@@ -81,13 +121,72 @@ public class JaxrsReader extends AbstractReader implements ClassSwaggerReader {
     }
 
     @Override
-    public Swagger read(Set<Class<?>> classes) {
+    public Swagger read(Set<Class<?>> classes) throws GenerateException {
+        discoveredTags = null;
+        if (readerThreads > 1 && classes.size() > 1) {
+            readResourcesInParallel(classes);
+            return swagger;
+        }
         for (Class<?> cls : classes) {
             read(cls);
         }
         return swagger;
     }
 
+    /**
+     * 每个根资源(连同子资源)由独立的reader解析, 合并顺序与顺序解析相同
+     *
+     * @param classes
+     * @throws GenerateException
+     */
+    private void readResourcesInParallel(Set<Class<?>> classes) throws GenerateException {
+        if (swagger == null) {
+            swagger = new Swagger();
+        }
+        List<Callable<Swagger>> tasks = new ArrayList<>();
+        for (final Class<?> cls : classes) {
+            tasks.add(new Callable<Swagger>() {
+                @Override
+                public Swagger call() {
+                    JaxrsReader reader = new JaxrsReader(JaxrsReader.this);
+                    activeReader.set(reader);
+                    try {
+                        return reader.read(cls);
+                    } finally {
+                        activeReader.remove();
+                    }
+                }
+            });
+        }
+        readInParallel(tasks);
+    }
+
+    /**
+     * 公共参数与顺序解析相同, 同名同位置的重复定义视为错误
+     */
+    @Override
+    protected void merge(Swagger partial) {
+        if (partial != null && partial.getParameters() != null) {
+            for (Map.Entry<String, Parameter> entry : partial.getParameters().entrySet()) {
+                if (hasCommonParameter(entry.getValue())) {
+                    throw new RuntimeException("Redefining common parameter '" + entry.getKey()
+                            + "' already defined elsewhere");
+                }
+                swagger.addParameter(entry.getKey(), entry.getValue());
+            }
+        }
+        super.merge(partial);
+    }
+
+    @Override
+    public List<Parameter> extractTypes(Class<?> cls, Set<Type> typesToSkip, List<Annotation> additionalAnnotations) {
+        JaxrsReader reader = activeReader.get();
+        if (reader != null && reader != this) {
+            return reader.extractTypes(cls, typesToSkip, additionalAnnotations);
+        }
+        return super.extractTypes(cls, typesToSkip, additionalAnnotations);
+    }
+
     public Swagger getSwagger() {
         return swagger;
     }
@@ -111,7 +210,7 @@ public class JaxrsReader extends AbstractReader implements ClassSwaggerReader {
 
         Map<String, Tag> tags = updateTagsForApi(parentTags, api);
         List<SecurityRequirement> securities = getSecurityRequirements(api);
-        Map<String, Tag> discoveredTags = scanClasspathForTags();
+        Map<String, Tag> discoveredTags = getDiscoveredTags();
 
         // merge consumes, produces
 
@@ -258,9 +357,30 @@ public class JaxrsReader extends AbstractReader implements ClassSwaggerReader {
         }
     }
 
+    private Map<String, Tag> getDiscoveredTags() {
+        Map<String, Tag> tags = discoveredTags;
+        if (tags == null) {
+            synchronized (this) {
+                tags = discoveredTags;
+                if (tags == null) {
+                    tags = scanClasspathForTags();
+                    discoveredTags = tags;
+                }
+            }
+        }
+        return tags;
+    }
+
     private Map<String, Tag> scanClasspathForTags() {
+        long start = System.currentTimeMillis();
+        if (classIndex == null) {
+            classIndex = new ClassIndex(LOG);
+        }
+        Set<Class<?>> definitions = classIndex.getTypesAnnotatedWith(SwaggerDefinition.class, tagLocations, false);
+        long indexed = System.currentTimeMillis();
+
         Map<String, Tag> tags = new HashMap<>();
-        for (Class<?> aClass: new Reflections("").getTypesAnnotatedWith(SwaggerDefinition.class)) {
+        for (Class<?> aClass: definitions) {
             SwaggerDefinition swaggerDefinition = AnnotationUtils.findAnnotation(aClass, SwaggerDefinition.class);
 
             for (io.swagger.annotations.Tag tag : swaggerDefinition.tags()) {
@@ -272,6 +392,9 @@ public class JaxrsReader extends AbstractReader implements ClassSwaggerReader {
             }
         }
 
+        LOG.debug(String.format("Discovered %d tag(s) from %d @SwaggerDefinition class(es) under %s: index lookup %d ms, tag extraction %d ms",
+                tags.size(), definitions.size(), tagLocations == null ? "classpath" : tagLocations, indexed - start,
+                System.currentTimeMillis() - indexed));
         return tags;
     }
 
@@ -399,7 +522,7 @@ public class JaxrsReader extends AbstractReader implements ClassSwaggerReader {
                 && !hasApiAnnotation
                 && !isSubResource(httpMethod, method)) {
             if (isPrimitive(responseClassType)) {
-                Property property = ModelConverters.getInstance().readAsProperty(responseClassType);
+                Property property = CachingModelConverters.getInstance().readAsProperty(responseClassType);
                 if (property != null) {
                     Property responseProperty = RESPONSE_CONTAINER_CONVERTER.withResponseContainer(responseContainer, property);
 
@@ -409,9 +532,9 @@ public class JaxrsReader extends AbstractReader implements ClassSwaggerReader {
                             .headers(defaultResponseHeaders));
                 }
             } else if (!responseClassType.equals(Void.class) && !responseClassType.equals(void.class)) {
-                Map<String, Model> models = ModelConverters.getInstance().read(responseClassType);
+                Map<String, Model> models = CachingModelConverters.getInstance().read(responseClassType);
                 if (models.isEmpty()) {
-                    Property p = ModelConverters.getInstance().readAsProperty(responseClassType);
+                    Property p = CachingModelConverters.getInstance().readAsProperty(responseClassType);
                     operation.response(responseCode, new Response()
                             .description("successful operation")
                             .schema(p)
@@ -579,7 +702,7 @@ public class JaxrsReader extends AbstractReader implements ClassSwaggerReader {
     }
 
     private Map<String, Model> readAllModels(Type responseClassType) {
-        Map<String, Model> modelMap = ModelConverters.getInstance().readAll(responseClassType);
+        Map<String, Model> modelMap = CachingModelConverters.getInstance().readAll(responseClassType);
         if (modelMap != null) {
             handleJsonTypeInfo(responseClassType, modelMap);
         }
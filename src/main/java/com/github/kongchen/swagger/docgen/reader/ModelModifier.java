@@ -20,10 +20,15 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author chekong on 15/5/19.
@@ -32,6 +37,16 @@ public class ModelModifier extends ModelResolver {
     private Map<JavaType, JavaType> modelSubtitutes = new HashMap<JavaType, JavaType>();
     private List<String> apiModelPropertyAccessExclusions = new ArrayList<String>();
 
+    /**
+     * 类型 -> 替换后的类型(没有替换时为empty), 避免每次解析都constructType
+     */
+    private final Map<Type, Optional<JavaType>> substitutionTable = new ConcurrentHashMap<Type, Optional<JavaType>>();
+
+    /**
+     * 类 -> 需要排除的属性名, 每个类只扫描一次方法和字段上的注解
+     */
+    private final Map<Class<?>, Set<String>> exclusionTable = new ConcurrentHashMap<Class<?>, Set<String>>();
+
     private static Logger LOGGER = LoggerFactory.getLogger(ModelModifier.class);
 
     public ModelModifier(ObjectMapper mapper) {
@@ -55,6 +70,8 @@ public class ModelModifier extends ModelResolver {
         }
         if(type != null && toType != null) {
             modelSubtitutes.put(type, toType);
+            substitutionTable.clear();
+            CachingModelConverters.getInstance().setCustomized(true);
         }
     }
 
@@ -64,14 +81,15 @@ public class ModelModifier extends ModelResolver {
 
     public void setApiModelPropertyAccessExclusions(List<String> apiModelPropertyAccessExclusions) {
         this.apiModelPropertyAccessExclusions = apiModelPropertyAccessExclusions;
+        exclusionTable.clear();
+        CachingModelConverters.getInstance().invalidate();
     }
 
     @Override
     public Property resolveProperty(Type type, ModelConverterContext context, Annotation[] annotations, Iterator<ModelConverter> chain) {
-    	// for method parameter types we get here Type but we need JavaType
-    	JavaType javaType = toJavaType(type);
-        if (modelSubtitutes.containsKey(javaType)) {
-            return super.resolveProperty(modelSubtitutes.get(javaType), context, annotations, chain);
+        Optional<JavaType> substitute = getSubstitute(type);
+        if (substitute.isPresent()) {
+            return super.resolveProperty(substitute.get(), context, annotations, chain);
         } else if (chain.hasNext()) {
             return chain.next().resolveProperty(type, context, annotations, chain);
         } else {
@@ -82,10 +100,9 @@ public class ModelModifier extends ModelResolver {
 
     @Override
     public Model resolve(Type type, ModelConverterContext context, Iterator<ModelConverter> chain) {
-    	// for method parameter types we get here Type but we need JavaType
-    	JavaType javaType = toJavaType(type);
-        if (modelSubtitutes.containsKey(javaType)) {
-            return super.resolve(modelSubtitutes.get(javaType), context, chain);
+        Optional<JavaType> substitute = getSubstitute(type);
+        if (substitute.isPresent()) {
+            return super.resolve(substitute.get(), context, chain);
         } else {
             return super.resolve(type, context, chain);
         }
@@ -100,30 +117,60 @@ public class ModelModifier extends ModelResolver {
             return model;
         }
 
-        Class<?> cls = type.getRawClass();
-
-        for (Method method : cls.getDeclaredMethods()) {
-            ApiModelProperty apiModelPropertyAnnotation = AnnotationUtils.findAnnotation(method, ApiModelProperty.class);
-
-            processProperty(apiModelPropertyAnnotation, model);
+        Set<String> excluded = getExcludedProperties(type.getRawClass());
+        if (!excluded.isEmpty() && model != null && model.getProperties() != null) {
+            model.getProperties().keySet().removeAll(excluded);
         }
 
-        for (Field field : FieldUtils.getAllFields(cls)) {
-            ApiModelProperty apiModelPropertyAnnotation = AnnotationUtils.getAnnotation(field, ApiModelProperty.class);
+        return model;
+    }
 
-            processProperty(apiModelPropertyAnnotation, model);
+    /**
+     * @param type
+     * @return 配置的替换类型, 没有替换时为empty
+     */
+    private Optional<JavaType> getSubstitute(Type type) {
+        Optional<JavaType> substitute = substitutionTable.get(type);
+        if (substitute == null) {
+            // for method parameter types we get here Type but we need JavaType
+            substitute = Optional.ofNullable(modelSubtitutes.get(toJavaType(type)));
+            substitutionTable.put(type, substitute);
         }
+        return substitute;
+    }
 
-        return model;
+    /**
+     * @param cls
+     * @return 按apiModelPropertyAccessExclusions需要从模型中移除的属性名
+     */
+    private Set<String> getExcludedProperties(Class<?> cls) {
+        Set<String> excluded = exclusionTable.get(cls);
+        if (excluded == null) {
+            excluded = new HashSet<String>();
+            for (Method method : cls.getDeclaredMethods()) {
+                ApiModelProperty apiModelPropertyAnnotation = AnnotationUtils.findAnnotation(method, ApiModelProperty.class);
+
+                processProperty(apiModelPropertyAnnotation, excluded);
+            }
+
+            for (Field field : FieldUtils.getAllFields(cls)) {
+                ApiModelProperty apiModelPropertyAnnotation = AnnotationUtils.getAnnotation(field, ApiModelProperty.class);
+
+                processProperty(apiModelPropertyAnnotation, excluded);
+            }
+            excluded = excluded.isEmpty() ? Collections.<String>emptySet() : excluded;
+            exclusionTable.put(cls, excluded);
+        }
+        return excluded;
     }
 
 
     /**
-     * Remove property from {@link Model} for provided {@link ApiModelProperty}.
+     * Collect the property name of provided {@link ApiModelProperty} if it has to be removed from the model.
      * @param apiModelPropertyAnnotation annotation
-     * @param model model with properties
+     * @param excluded names of the properties to remove
      */
-    private void processProperty(ApiModelProperty apiModelPropertyAnnotation, Model model) {
+    private void processProperty(ApiModelProperty apiModelPropertyAnnotation, Set<String> excluded) {
         if (apiModelPropertyAnnotation == null) {
             return;
         }
@@ -137,9 +184,9 @@ public class ModelModifier extends ModelResolver {
         }
 
         // Check to see if the value of @ApiModelProperty#access is one to exclude.
-        // If so, remove it from the previously-calculated model.
+        // If so, it will be removed from the previously-calculated model.
         if (apiModelPropertyAccessExclusions.contains(apiModelPropertyAccess)) {
-            model.getProperties().remove(apiModelPropertyName);
+            excluded.add(apiModelPropertyName);
         }
     }
 
@@ -7,10 +7,13 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.springframework.core.annotation.AnnotatedElementUtils.findMergedAnnotation;
 import static org.springframework.core.annotation.AnnotationUtils.findAnnotation;
@@ -21,12 +24,28 @@ public class SpringExceptionHandlerReader {
     private Map<Class<? extends Throwable>, ResponseStatus> exceptionMapping =
             new HashMap<Class<? extends Throwable>, ResponseStatus>();
 
+    /**
+     * 上一次处理的类, 相同时不再重新查找@ExceptionHandler
+     */
+    private Set<Class<?>> processedClasses;
+
+    /**
+     * 异常类型 -> 解析后的状态, 映射变化时清空
+     */
+    private final Map<Class<?>, Optional<ResponseStatus>> resolvedStatuses =
+            new ConcurrentHashMap<Class<?>, Optional<ResponseStatus>>();
+
     public SpringExceptionHandlerReader(Log log) {
         this.log = log;
     }
 
     public void processExceptionHandlers(Set<Class<?>> classes) {
+        if (classes.equals(processedClasses)) {
+            return;
+        }
         exceptionMapping = generateExceptionMapping(classes);
+        processedClasses = new HashSet<Class<?>>(classes);
+        resolvedStatuses.clear();
     }
 
     protected Map<Class<? extends Throwable>, ResponseStatus> generateExceptionMapping(Set<Class<?>> classes) {
@@ -69,17 +88,34 @@ public class SpringExceptionHandlerReader {
     protected List<ResponseStatus> getResponseStatusesFromExceptions(Method method) {
         List<ResponseStatus> result = new LinkedList<ResponseStatus>();
         for (Class exceptionClass: method.getExceptionTypes()) {
-            ResponseStatus responseStatus = exceptionMapping.get(exceptionClass);
-
-            // fallback to exception own annotation
-            if (null == responseStatus) {
-                responseStatus = findMergedAnnotation(exceptionClass, ResponseStatus.class);
+            Optional<ResponseStatus> responseStatus = resolvedStatuses.get(exceptionClass);
+            if (responseStatus == null) {
+                responseStatus = Optional.ofNullable(resolveResponseStatus(exceptionClass));
+                resolvedStatuses.put(exceptionClass, responseStatus);
             }
 
-            if (null != responseStatus) {
-                result.add(responseStatus);
+            if (responseStatus.isPresent()) {
+                result.add(responseStatus.get());
             }
         }
         return result;
     }
+
+    /**
+     * 与Spring的ExceptionDepthComparator一致, 注册在最近的父类上的@ExceptionHandler优先
+     *
+     * @param exceptionClass
+     * @return
+     */
+    private ResponseStatus resolveResponseStatus(Class<?> exceptionClass) {
+        for (Class<?> current = exceptionClass; current != null; current = current.getSuperclass()) {
+            ResponseStatus responseStatus = exceptionMapping.get(current);
+            if (responseStatus != null) {
+                return responseStatus;
+            }
+        }
+
+        // fallback to exception own annotation
+        return findMergedAnnotation(exceptionClass, ResponseStatus.class);
+    }
 }
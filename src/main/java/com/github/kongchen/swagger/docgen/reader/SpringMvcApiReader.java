@@ -3,11 +3,11 @@ package com.github.kongchen.swagger.docgen.reader;
 import com.github.kongchen.swagger.docgen.GenerateException;
 import com.github.kongchen.swagger.docgen.doc.JavaDoc;
 import com.github.kongchen.swagger.docgen.mavenplugin.ApiSource;
+import com.github.kongchen.swagger.docgen.spring.MethodParameterAnnotations;
 import com.github.kongchen.swagger.docgen.spring.SpringResource;
 import com.github.kongchen.swagger.docgen.spring.SpringSwaggerExtension;
 import com.github.kongchen.swagger.docgen.util.SpringUtils;
 import io.swagger.annotations.*;
-import io.swagger.converter.ModelConverters;
 import io.swagger.jaxrs.ext.SwaggerExtension;
 import io.swagger.jaxrs.ext.SwaggerExtensions;
 import io.swagger.models.*;
@@ -21,6 +21,7 @@ import org.codehaus.plexus.util.StringUtils;
 import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.ReflectionUtils;
+import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -32,6 +33,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.Callable;
 
 import static org.apache.commons.lang3.StringUtils.defaultIfEmpty;
 import static org.springframework.core.annotation.AnnotatedElementUtils.findMergedAnnotation;
@@ -52,6 +54,12 @@ public class SpringMvcApiReader extends AbstractReader implements ClassSwaggerRe
         this.exceptionHandlerReader = new SpringExceptionHandlerReader(log);
     }
 
+    private SpringMvcApiReader(final SpringMvcApiReader parent) {
+        super(parent);
+        this.apiSource = parent.apiSource;
+        this.exceptionHandlerReader = parent.exceptionHandlerReader;
+    }
+
     @Override
     protected void updateExtensionChain() {
         final List<SwaggerExtension> extensions = new ArrayList<SwaggerExtension>();
@@ -65,7 +73,11 @@ public class SpringMvcApiReader extends AbstractReader implements ClassSwaggerRe
         //get all methods from each controller & find their request mapping
         //create map - resource string (after first slash) as key, new SpringResource as value
         final Map<String, SpringResource> resourceMap = this.generateResourceMap(classes);
-        this.exceptionHandlerReader.processExceptionHandlers(classes);
+        this.exceptionHandlerReader.processExceptionHandlers(this.getExceptionHandlerClasses(classes));
+        if (this.readerThreads > 1 && resourceMap.size() > 1) {
+            this.readResourcesInParallel(resourceMap.values());
+            return this.swagger;
+        }
         for (final SpringResource resource : resourceMap.values()) {
             this.read(resource);
         }
@@ -73,6 +85,41 @@ public class SpringMvcApiReader extends AbstractReader implements ClassSwaggerRe
         return this.swagger;
     }
 
+    /**
+     * 配置了扫描路径时直接从共享的类索引中取@ControllerAdvice, 结果不变时不会重新解析
+     *
+     * @param classes
+     * @return
+     */
+    private Set<Class<?>> getExceptionHandlerClasses(final Set<Class<?>> classes) {
+        if (this.apiSource.getLocations() == null) {
+            return classes;
+        }
+        return this.apiSource.getValidClasses(ControllerAdvice.class);
+    }
+
+    /**
+     * 每个资源由独立的reader解析, 合并顺序与顺序解析相同
+     *
+     * @param resources
+     * @throws GenerateException
+     */
+    private void readResourcesInParallel(final Collection<SpringResource> resources) throws GenerateException {
+        if (this.swagger == null) {
+            this.swagger = new Swagger();
+        }
+        final List<Callable<Swagger>> tasks = new ArrayList<Callable<Swagger>>();
+        for (final SpringResource resource : resources) {
+            tasks.add(new Callable<Swagger>() {
+                @Override
+                public Swagger call() {
+                    return new SpringMvcApiReader(SpringMvcApiReader.this).read(resource);
+                }
+            });
+        }
+        this.readInParallel(tasks);
+    }
+
     public Swagger read(final SpringResource resource) {
         if (this.swagger == null) {
             this.swagger = new Swagger();
@@ -296,7 +343,7 @@ public class SpringMvcApiReader extends AbstractReader implements ClassSwaggerRe
                 && !responseClass.equals(ResponseEntity.class)
                 && !hasApiAnnotation) {
             if (this.isPrimitive(responseClass)) {
-                final Property property = ModelConverters.getInstance()
+                final Property property = CachingModelConverters.getInstance()
                                                          .readAsProperty(responseClass);
                 if (property != null) {
                     final Property responseProperty = RESPONSE_CONTAINER_CONVERTER.withResponseContainer(responseContainer, property);
@@ -306,10 +353,10 @@ public class SpringMvcApiReader extends AbstractReader implements ClassSwaggerRe
                             .headers(defaultResponseHeaders));
                 }
             } else if (!responseClass.equals(Void.class) && !responseClass.equals(void.class)) {
-                final Map<String, Model> models = ModelConverters.getInstance()
+                final Map<String, Model> models = CachingModelConverters.getInstance()
                                                                  .read(responseClass);
                 if (models.isEmpty()) {
-                    final Property pp = ModelConverters.getInstance()
+                    final Property pp = CachingModelConverters.getInstance()
                                                        .readAsProperty(responseClass);
                     operation.response(responseCode, new Response()
                             .description("successful operation")
@@ -325,7 +372,7 @@ public class SpringMvcApiReader extends AbstractReader implements ClassSwaggerRe
                     this.swagger.model(key, models.get(key));
                 }
             }
-            final Map<String, Model> models = ModelConverters.getInstance()
+            final Map<String, Model> models = CachingModelConverters.getInstance()
                                                              .readAll(responseClass);
             for (final Map.Entry<String, Model> entry : models.entrySet()) {
                 this.swagger.model(entry.getKey(), entry.getValue());
@@ -381,7 +428,7 @@ public class SpringMvcApiReader extends AbstractReader implements ClassSwaggerRe
         // genericParamTypes = method.getGenericParameterTypes
         for (int i = 0; i < parameterTypes.length; i++) {
             final Type type = genericParameterTypes[i];
-            final List<Annotation> annotations = Arrays.asList(paramAnnotations[i]);
+            final List<Annotation> annotations = new MethodParameterAnnotations(method, i, paramAnnotations[i]);
             final List<Parameter> parameters = this.getParameters(type, annotations);
 
 
@@ -0,0 +1,314 @@
+package com.github.kongchen.swagger.docgen.scan;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.reflections.util.ClasspathHelper;
+import org.springframework.asm.ClassReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * 直接读取class文件的扫描器
+ * <p>
+ * 先按类名过滤, 再读取class文件头(访问标志, 父类, 接口, 注解等)过滤, 不加载类也不执行静态初始化.
+ * 只有通过过滤的类才交给ClassLoader, 并且加载时不初始化.
+ * jar通过内存映射读取, 见{@link MappedJar}; 映射属于创建扫描器的ClassIndex, 或者只在一次扫描中使用.
+ */
+public class ClassFileScanner {
+
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final Log log;
+
+    /**
+     * 共享的jar映射, null时每次扫描单独映射, 扫描结束后释放
+     */
+    private final MappedJar.Cache jars;
+
+    public ClassFileScanner(Log log) {
+        this(log, null);
+    }
+
+    ClassFileScanner(Log log, MappedJar.Cache jars) {
+        this.log = log;
+        this.jars = jars;
+    }
+
+    /**
+     * class文件过滤条件
+     */
+    public interface ClassFileFilter {
+        /**
+         * @param className 类名, 内部类以$分隔
+         * @return false时不再读取class文件
+         */
+        boolean acceptName(String className);
+
+        /**
+         * @param reader class文件
+         * @return 是否保留
+         */
+        boolean accept(ClassReader reader);
+    }
+
+    /**
+     * 并行扫描locations下的class文件
+     *
+     * @param locations 包名
+     * @param filter
+     * @return 通过过滤的类名, 按名称排序
+     */
+    public SortedSet<String> scan(Collection<String> locations, final ClassFileFilter filter) {
+        long start = System.currentTimeMillis();
+        List<ClassFile> candidates = new ArrayList<>();
+        List<JarFile> jars = new ArrayList<>();
+        MappedJar.Cache mappedJars = this.jars == null ? new MappedJar.Cache() : this.jars;
+        final SortedSet<String> result = Collections.synchronizedSortedSet(new TreeSet<String>());
+        try {
+            for (String location : locations) {
+                String packagePath = location.replace('.', '/');
+                for (URL url : ClasspathHelper.forPackage(location)) {
+                    this.listClassFiles(url, packagePath, filter, candidates, mappedJars, jars);
+                }
+            }
+
+            candidates.parallelStream()
+                      .forEach(new Consumer<ClassFile>() {
+                          @Override
+                          public void accept(ClassFile classFile) {
+                              if (result.contains(classFile.className)) {
+                                  return;
+                              }
+                              try {
+                                  if (filter.accept(new ClassReader(classFile.read()))) {
+                                      result.add(classFile.className);
+                                  }
+                              } catch (IOException | RuntimeException e) {
+                                  ClassFileScanner.this.log.debug(String.format("Skip unreadable class file %s: %s",
+                                          classFile.className, e));
+                              }
+                          }
+                      });
+        } finally {
+            for (JarFile jar : jars) {
+                IOUtils.closeQuietly(jar);
+            }
+            if (this.jars == null) {
+                mappedJars.release();
+            }
+        }
+
+        this.log.debug(String.format("Scanned %d class file(s) under %s in %d ms, %d matched", candidates.size(),
+                locations, System.currentTimeMillis() - start, result.size()));
+        return result;
+    }
+
+    /**
+     * 加载类但不初始化, 无法加载的类忽略
+     *
+     * @param classNames
+     * @param classLoader
+     * @return
+     */
+    public Set<Class<?>> load(Collection<String> classNames, ClassLoader classLoader) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        for (String className : classNames) {
+            try {
+                classes.add(Class.forName(className, false, classLoader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                this.log.debug(String.format("Skip class %s: %s", className, e));
+            }
+        }
+        return classes;
+    }
+
+    private void listClassFiles(URL url, String packagePath, ClassFileFilter filter, List<ClassFile> candidates,
+                                MappedJar.Cache mappedJars, List<JarFile> jars) {
+        File root = toFile(url);
+        if (root == null) {
+            return;
+        }
+        try {
+            if (root.isDirectory()) {
+                listDirectory(root.toPath(), packagePath, filter, candidates);
+            } else if (root.isFile()) {
+                MappedJar mappedJar = mappedJars.get(root);
+                if (mappedJar != null) {
+                    listMappedJar(mappedJar, packagePath, filter, candidates);
+                } else {
+                    JarFile jar = new JarFile(root);
+                    jars.add(jar);
+                    listJar(jar, packagePath, filter, candidates);
+                }
+            }
+        } catch (IOException e) {
+            this.log.debug(String.format("Skip classpath element %s: %s", root, e));
+        }
+    }
+
+    private static void listDirectory(Path root, String packagePath, ClassFileFilter filter,
+                                      List<ClassFile> candidates) throws IOException {
+        Path base = packagePath.isEmpty() ? root : root.resolve(packagePath);
+        if (!Files.isDirectory(base)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.walk(base)) {
+            Iterator<Path> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                Path path = iterator.next();
+                String relative = root.relativize(path)
+                                      .toString()
+                                      .replace(path.getFileSystem()
+                                                   .getSeparator(), "/");
+                String className = toClassName(relative);
+                if (className != null && filter.acceptName(className) && Files.isRegularFile(path)) {
+                    candidates.add(new DirectoryClassFile(className, path));
+                }
+            }
+        }
+    }
+
+    private static void listMappedJar(MappedJar jar, String packagePath, ClassFileFilter filter,
+                                      List<ClassFile> candidates) {
+        String prefix = packagePath.isEmpty() ? "" : packagePath + "/";
+        for (MappedJar.Entry entry : jar.getClassEntries()) {
+            if (!entry.getName()
+                      .startsWith(prefix)) {
+                continue;
+            }
+            String className = toClassName(entry.getName());
+            if (className != null && filter.acceptName(className)) {
+                candidates.add(new MappedJarClassFile(className, jar, entry));
+            }
+        }
+    }
+
+    /**
+     * 不支持内存映射的jar
+     */
+    private static void listJar(JarFile jar, String packagePath, ClassFileFilter filter,
+                                List<ClassFile> candidates) {
+        String prefix = packagePath.isEmpty() ? "" : packagePath + "/";
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if (entry.isDirectory() || !entry.getName()
+                                             .startsWith(prefix)) {
+                continue;
+            }
+            String className = toClassName(entry.getName());
+            if (className != null && filter.acceptName(className)) {
+                candidates.add(new JarClassFile(className, jar, entry));
+            }
+        }
+    }
+
+    /**
+     * @param resourceName 以/分隔的相对路径
+     * @return 类名, 不是class文件时返回null
+     */
+    private static String toClassName(String resourceName) {
+        if (!resourceName.endsWith(CLASS_SUFFIX) || resourceName.endsWith("package-info.class")
+                || resourceName.endsWith("module-info.class")) {
+            return null;
+        }
+        return resourceName.substring(0, resourceName.length() - CLASS_SUFFIX.length())
+                           .replace('/', '.');
+    }
+
+    /**
+     * ClasspathHelper返回的目录或者jar:file:...!/形式的url转换为文件
+     */
+    private static File toFile(URL url) {
+        String external = url.toExternalForm();
+        if (external.startsWith("jar:")) {
+            external = external.substring("jar:".length());
+            int separator = external.indexOf("!/");
+            if (separator >= 0) {
+                external = external.substring(0, separator);
+            }
+        }
+        if (!external.startsWith("file:")) {
+            return null;
+        }
+        try {
+            return new File(new URL(external).toURI());
+        } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+            return new File(external.substring("file:".length()));
+        }
+    }
+
+    /**
+     * 目录中的class文件或jar中的条目
+     */
+    private abstract static class ClassFile {
+        final String className;
+
+        ClassFile(String className) {
+            this.className = className;
+        }
+
+        abstract byte[] read() throws IOException;
+    }
+
+    private static class DirectoryClassFile extends ClassFile {
+        private final Path path;
+
+        DirectoryClassFile(String className, Path path) {
+            super(className);
+            this.path = path;
+        }
+
+        @Override
+        byte[] read() throws IOException {
+            return Files.readAllBytes(this.path);
+        }
+    }
+
+    private static class MappedJarClassFile extends ClassFile {
+        private final MappedJar jar;
+
+        private final MappedJar.Entry entry;
+
+        MappedJarClassFile(String className, MappedJar jar, MappedJar.Entry entry) {
+            super(className);
+            this.jar = jar;
+            this.entry = entry;
+        }
+
+        @Override
+        byte[] read() throws IOException {
+            return this.jar.read(this.entry);
+        }
+    }
+
+    private static class JarClassFile extends ClassFile {
+        private final JarFile jar;
+
+        private final JarEntry entry;
+
+        JarClassFile(String className, JarFile jar, JarEntry entry) {
+            super(className);
+            this.jar = jar;
+            this.entry = entry;
+        }
+
+        @Override
+        byte[] read() throws IOException {
+            try (InputStream in = this.jar.getInputStream(this.entry)) {
+                return IOUtils.toByteArray(in);
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.github.kongchen.swagger.docgen.scan;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.springframework.asm.ClassReader;
+import org.springframework.asm.Opcodes;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Inherited;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 类路径索引
+ * <p>
+ * 每次mojo执行创建一个索引, 只扫描一次, 该次执行的所有apiSource以及所有注解查询共享,
+ * 不同执行(包括mvn -T下并行构建的模块)之间互不影响.
+ * 扫描时并行读取class文件, 只记录访问标志, 父类, 接口和类上的注解, 不加载类.
+ * 查询在类型图上完成, 只有最终结果才交给ClassLoader, 并且加载时不执行静态初始化.
+ */
+public final class ClassIndex {
+
+    private final List<String> indexedLocations = new ArrayList<>();
+
+    /**
+     * 类名 -> class文件中读取的类型信息
+     */
+    private final Map<String, TypeInfo> types = new ConcurrentHashMap<>();
+
+    /**
+     * 注解 -> 直接标注该注解的类型, 读写都在this上同步
+     */
+    private final Map<String, Set<String>> annotatedTypes = new HashMap<>();
+
+    /**
+     * 类或接口 -> 直接继承或实现它的类型, 读写都在this上同步
+     */
+    private final Map<String, Set<String>> subTypes = new HashMap<>();
+
+    private final Map<String, Set<String>> annotatedCache = new ConcurrentHashMap<>();
+
+    /**
+     * 本索引独占的jar映射, 扫描和释放都在this上同步
+     */
+    private final MappedJar.Cache jars = new MappedJar.Cache();
+
+    private Log log;
+
+    /**
+     * @param log 为null时输出到控制台
+     */
+    public ClassIndex(Log log) {
+        this.log = log;
+    }
+
+    /**
+     * 预先扫描所有apiSource的路径, 之后的查询不再扫描
+     *
+     * @param locations 所有apiSource的扫描路径
+     */
+    public void index(Collection<String> locations) {
+        this.ensureIndexed(locations);
+    }
+
+    /**
+     * 执行结束时释放本索引的jar内存映射, 之后的扫描会重新映射; 其他执行的索引不受影响
+     */
+    public synchronized void release() {
+        this.jars.release();
+    }
+
+    /**
+     * 搜索在locations下包含注解的class
+     *
+     * @param annotation
+     * @param locations         扫描路径, null表示整个classpath
+     * @param includeInheriting 是否包含继承了注解类的子类
+     * @return
+     */
+    public Set<Class<?>> getTypesAnnotatedWith(Class<? extends Annotation> annotation, List<String> locations,
+                                               boolean includeInheriting) {
+        List<String> prefixes = toPrefixes(locations);
+        this.ensureIndexed(prefixes);
+
+        Set<String> direct = this.getTypesAnnotatedWith(annotation, true);
+        Set<String> inherited = includeInheriting
+                ? this.getTypesAnnotatedWith(annotation, false)
+                : Collections.<String>emptySet();
+
+        Set<String> classNames = new LinkedHashSet<>();
+        for (String prefix : prefixes) {
+            addMatching(classNames, direct, prefix);
+            addMatching(classNames, inherited, prefix);
+        }
+        return this.load(classNames);
+    }
+
+    /**
+     * @param annotation
+     * @param honorInherited true时只包含直接标注的类型, 以及注解为@Inherited时这些类的子类;
+     *                       false时还包含以该注解为元注解的注解所标注的类型, 以及所有子类型
+     * @return 类名
+     */
+    private Set<String> getTypesAnnotatedWith(Class<? extends Annotation> annotation, boolean honorInherited) {
+        String key = annotation.getName() + ":" + honorInherited;
+        Set<String> result = this.annotatedCache.get(key);
+        if (result == null) {
+            synchronized (this) {
+                Set<String> annotated = this.getAnnotatedTypes(annotation.getName());
+                if (honorInherited) {
+                    result = new TreeSet<>(annotated);
+                    if (annotation.isAnnotationPresent(Inherited.class)) {
+                        for (String name : annotated) {
+                            this.addSubclasses(name, result);
+                        }
+                    }
+                } else {
+                    Set<String> keys = new TreeSet<>();
+                    Deque<String> pending = new ArrayDeque<>(annotated);
+                    while (!pending.isEmpty()) {
+                        String name = pending.poll();
+                        if (keys.add(name) && this.isAnnotation(name)) {
+                            pending.addAll(this.getAnnotatedTypes(name));
+                        }
+                    }
+                    result = new TreeSet<>(keys);
+                    for (String name : keys) {
+                        this.addSubTypes(name, result);
+                    }
+                }
+            }
+            this.annotatedCache.put(key, result);
+        }
+        return result;
+    }
+
+    private Set<String> getAnnotatedTypes(String annotation) {
+        Set<String> annotated = this.annotatedTypes.get(annotation);
+        return annotated == null ? Collections.<String>emptySet() : annotated;
+    }
+
+    /**
+     * 沿父类向下查找, 与@Inherited的语义一致, 接口上的注解不会被继承
+     */
+    private void addSubclasses(String name, Set<String> result) {
+        TypeInfo type = this.types.get(name);
+        if (type == null || type.isInterface()) {
+            return;
+        }
+        Set<String> children = this.subTypes.get(name);
+        if (children == null) {
+            return;
+        }
+        for (String child : children) {
+            TypeInfo childType = this.types.get(child);
+            if (childType != null && name.equals(childType.getSuperName()) && result.add(child)) {
+                this.addSubclasses(child, result);
+            }
+        }
+    }
+
+    private void addSubTypes(String name, Set<String> result) {
+        Set<String> children = this.subTypes.get(name);
+        if (children == null) {
+            return;
+        }
+        for (String child : children) {
+            if (result.add(child)) {
+                this.addSubTypes(child, result);
+            }
+        }
+    }
+
+    private boolean isAnnotation(String name) {
+        TypeInfo type = this.types.get(name);
+        return type != null && (type.getAccess() & Opcodes.ACC_ANNOTATION) != 0;
+    }
+
+    private Set<Class<?>> load(Collection<String> classNames) {
+        Set<Class<?>> classes = new LinkedHashSet<>();
+        ClassLoader contextClassLoader = Thread.currentThread()
+                                               .getContextClassLoader();
+        for (String className : classNames) {
+            Class<?> aClass = null;
+            if (contextClassLoader != null) {
+                aClass = this.load(className, contextClassLoader);
+            }
+            if (aClass == null) {
+                aClass = this.load(className, ClassIndex.class.getClassLoader());
+            }
+            if (aClass != null) {
+                classes.add(aClass);
+            }
+        }
+        return classes;
+    }
+
+    private Class<?> load(String className, ClassLoader classLoader) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            this.getLog()
+                .debug(String.format("Skip class %s: %s", className, e));
+            return null;
+        }
+    }
+
+    private synchronized void ensureIndexed(Collection<String> locations) {
+        List<String> missing = new ArrayList<>();
+        for (String location : toPrefixes(locations)) {
+            if (!this.isIndexed(location) && !missing.contains(location)) {
+                missing.add(location);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        final Map<String, TypeInfo> scanned = new ConcurrentHashMap<>();
+        new ClassFileScanner(this.getLog(), this.jars).scan(missing, new ClassFileScanner.ClassFileFilter() {
+            @Override
+            public boolean acceptName(String className) {
+                return true;
+            }
+
+            @Override
+            public boolean accept(ClassReader reader) {
+                TypeInfo type = TypeInfo.read(reader);
+                scanned.put(type.getName(), type);
+                return true;
+            }
+        });
+        for (TypeInfo type : scanned.values()) {
+            if (this.types.putIfAbsent(type.getName(), type) == null) {
+                this.addToGraph(type);
+            }
+        }
+        this.indexedLocations.addAll(missing);
+        this.annotatedCache.clear();
+
+        this.getLog()
+            .debug(String.format("Indexed %d type(s) under %s in %d ms", scanned.size(), missing,
+                    System.currentTimeMillis() - start));
+    }
+
+    private void addToGraph(TypeInfo type) {
+        for (String annotation : type.getAnnotations()) {
+            addEdge(this.annotatedTypes, annotation, type.getName());
+        }
+        if (type.getSuperName() != null) {
+            addEdge(this.subTypes, type.getSuperName(), type.getName());
+        }
+        for (String anInterface : type.getInterfaces()) {
+            addEdge(this.subTypes, anInterface, type.getName());
+        }
+    }
+
+    private static void addEdge(Map<String, Set<String>> graph, String from, String to) {
+        Set<String> targets = graph.get(from);
+        if (targets == null) {
+            targets = new TreeSet<>();
+            graph.put(from, targets);
+        }
+        targets.add(to);
+    }
+
+    private boolean isIndexed(String location) {
+        for (String indexed : this.indexedLocations) {
+            if (location.startsWith(indexed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Log getLog() {
+        if (this.log == null) {
+            this.log = new SystemStreamLog();
+        }
+        return this.log;
+    }
+
+    private static List<String> toPrefixes(Collection<String> locations) {
+        List<String> prefixes = new ArrayList<>();
+        if (locations == null) {
+            prefixes.add("");
+        } else {
+            prefixes.addAll(locations);
+        }
+        return prefixes;
+    }
+
+    private static void addMatching(Set<String> target, Set<String> source, String prefix) {
+        for (String className : source) {
+            if (className.startsWith(prefix)) {
+                target.add(className);
+            }
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.github.kongchen.swagger.docgen.scan;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 内存映射的jar文件
+ * <p>
+ * 只解析中央目录, 按文件名跳过非class条目; class条目按需从映射的内存中读取和解压.
+ * 映射保存在{@link Cache}中, 同一个Cache的所有扫描共享映射, 中央目录也只解析一次.
+ * 不支持的格式(zip64, 超过2G, 结构异常)返回null, 由调用方回退到JarFile.
+ */
+final class MappedJar {
+
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    private static final int CENTRAL_SIGNATURE = 0x02014b50;
+
+    private static final int LOCAL_SIGNATURE = 0x04034b50;
+
+    private static final int END_SIZE = 22;
+
+    private static final int CENTRAL_HEADER_SIZE = 46;
+
+    private static final int LOCAL_HEADER_SIZE = 30;
+
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+
+    private static final int STORED = 0;
+
+    private static final int DEFLATED = 8;
+
+    private static final byte[] CLASS_SUFFIX = ".class".getBytes(Charset.forName("US-ASCII"));
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final long length;
+
+    private final long lastModified;
+
+    private final ByteBuffer buffer;
+
+    private final List<Entry> classEntries;
+
+    private MappedJar(long length, long lastModified, ByteBuffer buffer, List<Entry> classEntries) {
+        this.length = length;
+        this.lastModified = lastModified;
+        this.buffer = buffer;
+        this.classEntries = classEntries;
+    }
+
+    /**
+     * 尽力解除映射, 不支持时等待GC回收
+     */
+    private static void unmap(ByteBuffer buffer) {
+        try {
+            // java 9+
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            return;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // java 8
+        }
+        try {
+            Method cleanerMethod = buffer.getClass()
+                                         .getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (cleaner != null) {
+                cleaner.getClass()
+                       .getMethod("clean")
+                       .invoke(cleaner);
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * 一次执行(一个ClassIndex或一次扫描)独占的映射
+     * <p>
+     * 不同执行之间不共享映射, 一个执行释放映射时不会影响另一个执行(例如mvn -T下的其他模块)正在进行的扫描.
+     */
+    static final class Cache {
+        private final Map<File, MappedJar> jars = new ConcurrentHashMap<>();
+
+        /**
+         * @param file
+         * @return 共享的映射, 格式不支持时返回null
+         * @throws IOException
+         */
+        MappedJar get(File file) throws IOException {
+            File key = file.getAbsoluteFile();
+            MappedJar jar = jars.get(key);
+            if (jar != null && jar.length == key.length() && jar.lastModified == key.lastModified()) {
+                return jar;
+            }
+            jar = open(key);
+            if (jar != null) {
+                // 文件变化前的映射可能还在被读取, 交给GC回收
+                jars.put(key, jar);
+            }
+            return jar;
+        }
+
+        /**
+         * 释放所有映射
+         * <p>
+         * 映射在GC回收前一直锁定文件(Windows)并占用内存, 这里主动解除映射;
+         * 调用方保证这个Cache没有正在进行的扫描, 其他Cache的映射不受影响.
+         */
+        void release() {
+            List<MappedJar> released = new ArrayList<>(jars.values());
+            jars.clear();
+            for (MappedJar jar : released) {
+                unmap(jar.buffer);
+            }
+        }
+    }
+
+    private static MappedJar open(File file) throws IOException {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        if (length < END_SIZE || length > Integer.MAX_VALUE) {
+            return null;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length)
+                            .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        List<Entry> entries = readCentralDirectory(buffer);
+        return entries == null ? null : new MappedJar(length, lastModified, buffer, entries);
+    }
+
+    private static List<Entry> readCentralDirectory(ByteBuffer buffer) {
+        int end = findEnd(buffer);
+        if (end < 0) {
+            return null;
+        }
+        int total = buffer.getShort(end + 10) & 0xFFFF;
+        long offset = buffer.getInt(end + 16) & 0xFFFFFFFFL;
+        if (total == 0xFFFF || offset == 0xFFFFFFFFL || offset >= end) {
+            // zip64
+            return null;
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        int position = (int) offset;
+        for (int i = 0; i < total; i++) {
+            if (position + CENTRAL_HEADER_SIZE > end || buffer.getInt(position) != CENTRAL_SIGNATURE) {
+                return null;
+            }
+            int flags = buffer.getShort(position + 8) & 0xFFFF;
+            int method = buffer.getShort(position + 10) & 0xFFFF;
+            long compressedSize = buffer.getInt(position + 20) & 0xFFFFFFFFL;
+            long size = buffer.getInt(position + 24) & 0xFFFFFFFFL;
+            int nameLength = buffer.getShort(position + 28) & 0xFFFF;
+            int extraLength = buffer.getShort(position + 30) & 0xFFFF;
+            int commentLength = buffer.getShort(position + 32) & 0xFFFF;
+            long localOffset = buffer.getInt(position + 42) & 0xFFFFFFFFL;
+            int nameOffset = position + CENTRAL_HEADER_SIZE;
+
+            // 加密的条目读不了, 非class条目不解码文件名
+            if ((flags & 1) == 0 && endsWith(buffer, nameOffset, nameLength, CLASS_SUFFIX)) {
+                byte[] name = new byte[nameLength];
+                for (int j = 0; j < nameLength; j++) {
+                    name[j] = buffer.get(nameOffset + j);
+                }
+                entries.add(new Entry(new String(name, UTF_8), method, compressedSize, size, localOffset));
+            }
+            position = nameOffset + nameLength + extraLength + commentLength;
+        }
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * 从后向前查找结束记录, 注释中可能出现相同的签名, 注释长度与文件末尾一致才是真正的结束记录
+     */
+    private static int findEnd(ByteBuffer buffer) {
+        int last = buffer.limit() - END_SIZE;
+        int first = Math.max(0, last - MAX_COMMENT_SIZE);
+        for (int i = last; i >= first; i--) {
+            if (buffer.getInt(i) == END_SIGNATURE && (buffer.getShort(i + 20) & 0xFFFF) == last - i) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean endsWith(ByteBuffer buffer, int offset, int length, byte[] suffix) {
+        if (length < suffix.length) {
+            return false;
+        }
+        int start = offset + length - suffix.length;
+        for (int i = 0; i < suffix.length; i++) {
+            if (buffer.get(start + i) != suffix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return 所有class条目, 文件名以/分隔
+     */
+    List<Entry> getClassEntries() {
+        return classEntries;
+    }
+
+    /**
+     * 读取条目内容, 可以并发调用
+     *
+     * @param entry
+     * @return
+     * @throws IOException
+     */
+    byte[] read(Entry entry) throws IOException {
+        if (entry.size > Integer.MAX_VALUE || entry.compressedSize > Integer.MAX_VALUE
+                || entry.localOffset + LOCAL_HEADER_SIZE > buffer.limit()) {
+            throw new IOException("Unsupported entry " + entry.name);
+        }
+        int local = (int) entry.localOffset;
+        if (buffer.getInt(local) != LOCAL_SIGNATURE) {
+            throw new IOException("Invalid local header for " + entry.name);
+        }
+        int data = local + LOCAL_HEADER_SIZE + (buffer.getShort(local + 26) & 0xFFFF)
+                + (buffer.getShort(local + 28) & 0xFFFF);
+        if (data + entry.compressedSize > buffer.limit()) {
+            throw new IOException("Truncated entry " + entry.name);
+        }
+
+        ByteBuffer content = buffer.duplicate();
+        content.position(data);
+        content.limit(data + (int) entry.compressedSize);
+        byte[] bytes = new byte[(int) entry.size];
+        if (entry.method == STORED) {
+            content.get(bytes);
+            return bytes;
+        }
+        if (entry.method != DEFLATED) {
+            throw new IOException("Unsupported compression method " + entry.method + " for " + entry.name);
+        }
+
+        // nowrap模式需要在输入末尾多一个字节
+        byte[] compressed = new byte[(int) entry.compressedSize + 1];
+        content.get(compressed, 0, (int) entry.compressedSize);
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            int count = 0;
+            while (count < bytes.length && !inflater.finished()) {
+                int inflated = inflater.inflate(bytes, count, bytes.length - count);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                count += inflated;
+            }
+            if (count != bytes.length) {
+                throw new IOException("Truncated entry " + entry.name);
+            }
+            return bytes;
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid compressed data for " + entry.name, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * 中央目录中的一个class条目
+     */
+    static final class Entry {
+        private final String name;
+
+        private final int method;
+
+        private final long compressedSize;
+
+        private final long size;
+
+        private final long localOffset;
+
+        Entry(String name, int method, long compressedSize, long size, long localOffset) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localOffset = localOffset;
+        }
+
+        String getName() {
+            return name;
+        }
+    }
+}
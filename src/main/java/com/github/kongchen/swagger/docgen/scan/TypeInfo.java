@@ -0,0 +1,101 @@
+package com.github.kongchen.swagger.docgen.scan;
+
+import org.springframework.asm.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 从class文件读取的类型信息: 访问标志, 父类, 接口和类上的运行时注解
+ */
+final class TypeInfo {
+
+    private static final int PARSING_OPTIONS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    private final String name;
+
+    private final int access;
+
+    private final String superName;
+
+    private final List<String> interfaces;
+
+    private final List<String> annotations;
+
+    private TypeInfo(String name, int access, String superName, List<String> interfaces, List<String> annotations) {
+        this.name = name;
+        this.access = access;
+        this.superName = superName;
+        this.interfaces = interfaces;
+        this.annotations = annotations;
+    }
+
+    /**
+     * 只访问类的头部和注解, 跳过字段和方法
+     *
+     * @param reader
+     * @return
+     */
+    static TypeInfo read(ClassReader reader) {
+        final List<String> annotations = new ArrayList<>();
+        reader.accept(new ClassVisitor(SpringAsmInfo.ASM_VERSION) {
+            @Override
+            public AnnotationVisitor visitAnnotation(String desc, boolean visible) {
+                if (visible) {
+                    annotations.add(Type.getType(desc)
+                                        .getClassName());
+                }
+                return null;
+            }
+
+            @Override
+            public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+                return null;
+            }
+
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String desc, String signature,
+                                             String[] exceptions) {
+                return null;
+            }
+        }, PARSING_OPTIONS);
+
+        String superName = reader.getSuperName();
+        List<String> interfaces = new ArrayList<>();
+        for (String anInterface : reader.getInterfaces()) {
+            interfaces.add(toClassName(anInterface));
+        }
+        return new TypeInfo(toClassName(reader.getClassName()), reader.getAccess(),
+                superName == null ? null : toClassName(superName), Collections.unmodifiableList(interfaces),
+                Collections.unmodifiableList(annotations));
+    }
+
+    private static String toClassName(String internalName) {
+        return internalName.replace('/', '.');
+    }
+
+    String getName() {
+        return name;
+    }
+
+    int getAccess() {
+        return access;
+    }
+
+    boolean isInterface() {
+        return (access & Opcodes.ACC_INTERFACE) != 0;
+    }
+
+    String getSuperName() {
+        return superName;
+    }
+
+    List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    List<String> getAnnotations() {
+        return annotations;
+    }
+}
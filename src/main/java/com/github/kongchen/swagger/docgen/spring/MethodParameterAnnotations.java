@@ -0,0 +1,45 @@
+package com.github.kongchen.swagger.docgen.spring;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * 方法参数上的注解
+ * <p>
+ * 和Arrays.asList一样是只读列表, 另外带上参数所在的方法和位置,
+ * SpringSwaggerExtension据此按参数缓存注解的解析结果.
+ */
+public class MethodParameterAnnotations extends AbstractList<Annotation> implements RandomAccess {
+
+    private final Method method;
+
+    private final int index;
+
+    private final Annotation[] annotations;
+
+    public MethodParameterAnnotations(Method method, int index, Annotation[] annotations) {
+        this.method = method;
+        this.index = index;
+        this.annotations = annotations;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    @Override
+    public Annotation get(int index) {
+        return annotations[index];
+    }
+
+    @Override
+    public int size() {
+        return annotations.length;
+    }
+}
@@ -1,10 +1,10 @@
 package com.github.kongchen.swagger.docgen.spring;
 
 import com.fasterxml.jackson.databind.JavaType;
+import com.github.kongchen.swagger.docgen.reader.CachingModelConverters;
 import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import io.swagger.annotations.ApiParam;
-import io.swagger.converter.ModelConverters;
 import io.swagger.jaxrs.ext.AbstractSwaggerExtension;
 import io.swagger.jaxrs.ext.SwaggerExtension;
 import io.swagger.models.Swagger;
@@ -29,6 +29,7 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author chekong on 15/4/27.
@@ -39,8 +40,20 @@ public class SpringSwaggerExtension extends AbstractSwaggerExtension {
 
     private static final RequestParam DEFAULT_REQUEST_PARAM = (RequestParam)MethodUtils.getMatchingMethod(AnnotationBearer.class, "get", String.class).getParameterAnnotations()[0][0];
 
+    private static final String SPRING_WEB_ANNOTATION_PREFIX = "org.springframework.web.bind.annotation";
+
     private Log log;
 
+    /**
+     * 方法 -> 按参数位置的注解解析结果
+     */
+    private final Map<Method, ParameterAnnotations[]> parameterAnnotations = new ConcurrentHashMap<>();
+
+    /**
+     * 标注了ModelAttribute的类型 -> 其中标注了ApiParam的属性
+     */
+    private final Map<Class<?>, List<ModelAttributeProperty>> modelAttributeProperties = new ConcurrentHashMap<>();
+
     // Class specificly for holding default value annotations
     private static class AnnotationBearer {
         /**
@@ -61,16 +74,16 @@ public class SpringSwaggerExtension extends AbstractSwaggerExtension {
             return new ArrayList<Parameter>();
         }
 
+        ParameterAnnotations parameterAnnotations = getParameterAnnotations(annotations);
+
         if (annotations.isEmpty()) {
             // Method arguments are not required to have any annotations
             annotations = Lists.newArrayList((Annotation) null);
         }
 
-        Map<Class<?>, Annotation> annotationMap = toMap(annotations);
-
         List<Parameter> parameters = new ArrayList<Parameter>();
-        parameters.addAll(extractParametersFromModelAttributeAnnotation(type, annotationMap));
-        parameters.addAll(extractParametersFromAnnotation(type, annotationMap));
+        parameters.addAll(extractParametersFromModelAttributeAnnotation(type, parameterAnnotations));
+        parameters.addAll(extractParametersFromAnnotation(type, parameterAnnotations));
 
         if (!parameters.isEmpty()) {
             return parameters;
@@ -78,52 +91,52 @@ public class SpringSwaggerExtension extends AbstractSwaggerExtension {
         return super.extractParameters(annotations, type, typesToSkip, chain);
     }
 
-    private Map<Class<?>, Annotation> toMap(Collection<? extends Annotation> annotations) {
-        Map<Class<?>, Annotation> annotationMap = new HashMap<>();
-        for (Annotation annotation : annotations) {
-            if (annotation == null) {
-                continue;
-            }
-            annotationMap.put(annotation.annotationType(), annotation);
+    /**
+     * 方法参数按(方法, 位置)缓存, 其他来源的注解每次解析
+     */
+    private ParameterAnnotations getParameterAnnotations(List<Annotation> annotations) {
+        if (!(annotations instanceof MethodParameterAnnotations)) {
+            return new ParameterAnnotations(annotations);
         }
-
-        return annotationMap;
-    }
-
-    private boolean hasClassStartingWith(Collection<Class<?>> list, String value) {
-        for (Class<?> aClass : list) {
-            if (aClass.getName().startsWith(value)) {
-                return true;
+        MethodParameterAnnotations methodParameter = (MethodParameterAnnotations) annotations;
+        Method method = methodParameter.getMethod();
+        ParameterAnnotations[] parameters = parameterAnnotations.get(method);
+        if (parameters == null) {
+            parameters = new ParameterAnnotations[method.getParameterTypes().length];
+            ParameterAnnotations[] existing = parameterAnnotations.putIfAbsent(method, parameters);
+            if (existing != null) {
+                parameters = existing;
             }
         }
-
-        return false;
+        // 解析结果不可变, 并发时重复解析也没有影响
+        ParameterAnnotations result = parameters[methodParameter.getIndex()];
+        if (result == null) {
+            result = new ParameterAnnotations(annotations);
+            parameters[methodParameter.getIndex()] = result;
+        }
+        return result;
     }
 
-    private List<Parameter> extractParametersFromAnnotation(Type type, Map<Class<?>, Annotation> annotations) {
+    private List<Parameter> extractParametersFromAnnotation(Type type, ParameterAnnotations annotations) {
         List<Parameter> parameters = new ArrayList<>();
 
         if (isRequestParamType(type, annotations)) {
-            parameters.add(extractRequestParam(type, (RequestParam)annotations.get(RequestParam.class)));
+            parameters.add(extractRequestParam(type, annotations.requestParam));
         }
-        if (annotations.containsKey(PathVariable.class)) {
-            PathVariable pathVariable = (PathVariable) annotations.get(PathVariable.class);
-            PathParameter pathParameter = extractPathVariable(type, pathVariable);
+        if (annotations.pathVariable != null) {
+            PathParameter pathParameter = extractPathVariable(type, annotations.pathVariable);
             parameters.add(pathParameter);
         }
-        if (annotations.containsKey(RequestHeader.class)) {
-            RequestHeader requestHeader = (RequestHeader) annotations.get(RequestHeader.class);
-            HeaderParameter headerParameter = extractRequestHeader(type, requestHeader);
+        if (annotations.requestHeader != null) {
+            HeaderParameter headerParameter = extractRequestHeader(type, annotations.requestHeader);
             parameters.add(headerParameter);
         }
-        if (annotations.containsKey(CookieValue.class)) {
-            CookieValue cookieValue = (CookieValue) annotations.get(CookieValue.class);
-            CookieParameter cookieParameter = extractCookieValue(type, cookieValue);
+        if (annotations.cookieValue != null) {
+            CookieParameter cookieParameter = extractCookieValue(type, annotations.cookieValue);
             parameters.add(cookieParameter);
         }
-        if (annotations.containsKey(RequestPart.class)) {
-            RequestPart requestPart = (RequestPart) annotations.get(RequestPart.class);
-            FormParameter formParameter = extractRequestPart(type, requestPart);
+        if (annotations.requestPart != null) {
+            FormParameter formParameter = extractRequestPart(type, annotations.requestPart);
             parameters.add(formParameter);
         }
 
@@ -166,7 +179,7 @@ public class SpringSwaggerExtension extends AbstractSwaggerExtension {
                 MultipartFile.class.isAssignableFrom(ct.getContentType().getRawClass())) {
             schema = new ArrayProperty().items(new FileProperty());
         } else {
-            schema = ModelConverters.getInstance().readAsProperty(type);
+            schema = CachingModelConverters.getInstance().readAsProperty(type);
         }
 
         if (schema != null) {
@@ -217,7 +230,7 @@ public class SpringSwaggerExtension extends AbstractSwaggerExtension {
 
     private Property readAsPropertyIfPrimitive(Type type) {
         if (com.github.kongchen.swagger.docgen.util.TypeUtils.isPrimitive(type)) {
-            return ModelConverters.getInstance().readAsProperty(type);
+            return CachingModelConverters.getInstance().readAsProperty(type);
         } else {
             String msg = String.format("Non-primitive type: %s used as request/path/cookie parameter", type);
             log.warn(msg);
@@ -249,14 +262,36 @@ public class SpringSwaggerExtension extends AbstractSwaggerExtension {
         }
     }
 
-    private List<Parameter> extractParametersFromModelAttributeAnnotation(Type type, Map<Class<?>, Annotation> annotations) {
-        ModelAttribute modelAttribute = (ModelAttribute)annotations.get(ModelAttribute.class);
-        if ((modelAttribute == null || !hasClassStartingWith(annotations.keySet(), "org.springframework.web.bind.annotation"))&& BeanUtils.isSimpleProperty(TypeUtils.getRawType(type, null))) {
+    private List<Parameter> extractParametersFromModelAttributeAnnotation(Type type, ParameterAnnotations annotations) {
+        if ((annotations.modelAttribute == null || !annotations.springWebAnnotated) && BeanUtils.isSimpleProperty(TypeUtils.getRawType(type, null))) {
             return Collections.emptyList();
         }
 
         List<Parameter> parameters = new ArrayList<Parameter>();
         Class<?> clazz = TypeUtils.getRawType(type, type);
+        for (ModelAttributeProperty property : getModelAttributeProperties(clazz)) {
+            List<Parameter> propertySetterExtractedParameters = this.extractParametersFromAnnotation(
+                    property.type, property.annotations);
+
+            for (Parameter parameter : propertySetterExtractedParameters) {
+                if (Strings.isNullOrEmpty(parameter.getName())) {
+                    parameter.setName(property.name);
+                }
+                ParameterProcessor.applyAnnotations(new Swagger(), parameter, type, Lists.newArrayList(property.apiParam));
+            }
+            parameters.addAll(propertySetterExtractedParameters);
+        }
+
+        return parameters;
+    }
+
+    private List<ModelAttributeProperty> getModelAttributeProperties(Class<?> clazz) {
+        List<ModelAttributeProperty> result = modelAttributeProperties.get(clazz);
+        if (result != null) {
+            return result;
+        }
+
+        result = new ArrayList<ModelAttributeProperty>();
         for (PropertyDescriptor propertyDescriptor : BeanUtils.getPropertyDescriptors(clazz)) {
             // Get all the valid setter methods inside the bean
             Method propertyDescriptorSetter = propertyDescriptor.getWriteMethod();
@@ -275,26 +310,19 @@ public class SpringSwaggerExtension extends AbstractSwaggerExtension {
                     continue;
                 }
 
-                Class parameterClass = propertyDescriptor.getPropertyType();
-                List<Parameter> propertySetterExtractedParameters = this.extractParametersFromAnnotation(
-                        parameterClass, toMap(Arrays.asList(parameterAnnotations[0])));
-
-                for (Parameter parameter : propertySetterExtractedParameters) {
-                    if (Strings.isNullOrEmpty(parameter.getName())) {
-                        parameter.setName(propertyDescriptor.getDisplayName());
-                    }
-                    ParameterProcessor.applyAnnotations(new Swagger(), parameter, type, Lists.newArrayList(propertySetterApiParam));
-                }
-                parameters.addAll(propertySetterExtractedParameters);
+                result.add(new ModelAttributeProperty(propertyDescriptor.getDisplayName(),
+                        propertyDescriptor.getPropertyType(), propertySetterApiParam,
+                        new ParameterAnnotations(Arrays.asList(parameterAnnotations[0]))));
             }
         }
 
-        return parameters;
+        result = Collections.unmodifiableList(result);
+        modelAttributeProperties.put(clazz, result);
+        return result;
     }
 
-    private boolean isRequestParamType(Type type, Map<Class<?>, Annotation> annotations) {
-        RequestParam requestParam = (RequestParam) annotations.get(RequestParam.class);
-        return requestParam != null || (BeanUtils.isSimpleProperty(TypeUtils.getRawType(type, type)) && !hasClassStartingWith(annotations.keySet(), "org.springframework.web.bind.annotation"));
+    private boolean isRequestParamType(Type type, ParameterAnnotations annotations) {
+        return annotations.requestParam != null || (BeanUtils.isSimpleProperty(TypeUtils.getRawType(type, type)) && !annotations.springWebAnnotated);
     }
 
     @Override
@@ -321,4 +349,60 @@ public class SpringSwaggerExtension extends AbstractSwaggerExtension {
         return clazzName.startsWith("org.springframework") &&
                 !"org.springframework.web.multipart.MultipartFile".equals(clazzName);
     }
+
+    /**
+     * 一个参数上Spring的注解, 只解析一次
+     */
+    private static final class ParameterAnnotations {
+        private final RequestParam requestParam;
+        private final PathVariable pathVariable;
+        private final RequestHeader requestHeader;
+        private final CookieValue cookieValue;
+        private final RequestPart requestPart;
+        private final ModelAttribute modelAttribute;
+
+        /**
+         * 是否有org.springframework.web.bind.annotation下的注解
+         */
+        private final boolean springWebAnnotated;
+
+        ParameterAnnotations(Collection<? extends Annotation> annotations) {
+            Map<Class<?>, Annotation> annotationMap = new HashMap<>();
+            boolean springWebAnnotated = false;
+            for (Annotation annotation : annotations) {
+                if (annotation == null) {
+                    continue;
+                }
+                annotationMap.put(annotation.annotationType(), annotation);
+                if (annotation.annotationType().getName().startsWith(SPRING_WEB_ANNOTATION_PREFIX)) {
+                    springWebAnnotated = true;
+                }
+            }
+
+            this.requestParam = (RequestParam) annotationMap.get(RequestParam.class);
+            this.pathVariable = (PathVariable) annotationMap.get(PathVariable.class);
+            this.requestHeader = (RequestHeader) annotationMap.get(RequestHeader.class);
+            this.cookieValue = (CookieValue) annotationMap.get(CookieValue.class);
+            this.requestPart = (RequestPart) annotationMap.get(RequestPart.class);
+            this.modelAttribute = (ModelAttribute) annotationMap.get(ModelAttribute.class);
+            this.springWebAnnotated = springWebAnnotated;
+        }
+    }
+
+    /**
+     * ModelAttribute类型中标注了ApiParam的setter
+     */
+    private static final class ModelAttributeProperty {
+        private final String name;
+        private final Class<?> type;
+        private final ApiParam apiParam;
+        private final ParameterAnnotations annotations;
+
+        ModelAttributeProperty(String name, Class<?> type, ApiParam apiParam, ParameterAnnotations annotations) {
+            this.name = name;
+            this.type = type;
+            this.apiParam = apiParam;
+            this.annotations = annotations;
+        }
+    }
 }
@@ -1,31 +1,82 @@
 package com.github.kongchen.swagger.docgen.util;
 
+import java.io.File;
 import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URL;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
-import io.swagger.converter.ModelConverters;
-import io.swagger.models.properties.Property;
+import com.github.kongchen.swagger.docgen.reader.CachingModelConverters;
 
 public class TypeUtils {
 
+    /**
+     * readAsProperty结果为这些type时视为基础类型
+     */
+    private static final Set<String> PRIMITIVE_PROPERTY_TYPES = new HashSet<>(
+            Arrays.asList("integer", "string", "number", "boolean", "array", "file"));
+
+    /**
+     * 默认转换链下结果固定的JDK类型, true为基础类型
+     */
+    private static final Map<Class<?>, Boolean> KNOWN_TYPES = new HashMap<>();
+
+    static {
+        for (Class<?> cls : Arrays.<Class<?>>asList(
+                boolean.class, Boolean.class, byte.class, Byte.class, short.class, Short.class,
+                int.class, Integer.class, long.class, Long.class, float.class, Float.class,
+                double.class, Double.class, char.class, Character.class, String.class,
+                BigDecimal.class, BigInteger.class, Date.class, java.sql.Date.class, java.sql.Timestamp.class,
+                Calendar.class, LocalDate.class, LocalDateTime.class, OffsetDateTime.class, ZonedDateTime.class,
+                Instant.class, UUID.class, URI.class, URL.class, File.class)) {
+            KNOWN_TYPES.put(cls, true);
+        }
+        for (Class<?> cls : Arrays.<Class<?>>asList(
+                Object.class, void.class, Void.class, Map.class, HashMap.class, LinkedHashMap.class, TreeMap.class)) {
+            KNOWN_TYPES.put(cls, false);
+        }
+    }
+
+    /**
+     * 分类结果, ModelConverter变化后清空
+     */
+    private static final Map<Type, Boolean> classified = new ConcurrentHashMap<>();
+
+    private static volatile long generation = -1;
+
     public static boolean isPrimitive(Type cls) {
-        boolean isPrimitive = false;
-
-        Property property = ModelConverters.getInstance().readAsProperty(cls);
-        if (property == null) {
-            isPrimitive = false;
-        } else if ("integer".equals(property.getType())) {
-            isPrimitive = true;
-        } else if ("string".equals(property.getType())) {
-            isPrimitive = true;
-        } else if ("number".equals(property.getType())) {
-            isPrimitive = true;
-        } else if ("boolean".equals(property.getType())) {
-            isPrimitive = true;
-        } else if ("array".equals(property.getType())) {
-            isPrimitive = true;
-        } else if ("file".equals(property.getType())) {
-            isPrimitive = true;
+        CachingModelConverters converters = CachingModelConverters.getInstance();
+        long current = converters.getGeneration();
+        if (current != generation) {
+            classified.clear();
+            generation = current;
+        }
+
+        Boolean isPrimitive = classified.get(cls);
+        if (isPrimitive == null) {
+            isPrimitive = classify(cls, converters);
+            classified.put(cls, isPrimitive);
         }
         return isPrimitive;
     }
+
+    private static boolean classify(Type cls, CachingModelConverters converters) {
+        // 有自定义转换时JDK类型也可能被替换, 只能走转换链
+        if (cls instanceof Class && !converters.isCustomized()) {
+            Class<?> clazz = (Class<?>) cls;
+            Boolean known = KNOWN_TYPES.get(clazz);
+            if (known != null) {
+                return known;
+            }
+            if (clazz.isArray() || clazz.isEnum() || Collection.class.isAssignableFrom(clazz)) {
+                return true;
+            }
+        }
+        String type = converters.readPropertyType(cls);
+        return type != null && PRIMITIVE_PROPERTY_TYPES.contains(type);
+    }
 }
@@ -0,0 +1,142 @@
+package com.github.kongchen.swagger.docgen.validation;
+
+import com.google.common.collect.MapMaker;
+import io.swagger.models.ArrayModel;
+import io.swagger.models.Model;
+import io.swagger.models.ModelImpl;
+import io.swagger.models.RefModel;
+import io.swagger.models.Swagger;
+import io.swagger.models.properties.ArrayProperty;
+import io.swagger.models.properties.MapProperty;
+import io.swagger.models.properties.Property;
+import io.swagger.models.properties.RefProperty;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.core.ResolvableType;
+
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 沿着definitions之间的引用补充字段注释和验证规则
+ * <p>
+ * 从请求体或响应的类型出发, 逐层解析属性对应的字段类型(包括泛型参数, 集合和数组的元素, Map的value),
+ * 嵌套的模型也会处理. 同一个definition对象只处理一次, 循环引用不会重复访问.
+ */
+public class DefinitionEnricher {
+
+    /**
+     * 是否写入x-rules, 否则只补充注释
+     */
+    private final boolean withRules;
+
+    /**
+     * 类 -> 验证规则, 同一个类只编译一次
+     */
+    private final Map<Class<?>, ValidationPlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * 已处理的definition, 按对象标识比较; 重新生成的definition是新对象, 会再处理一次
+     */
+    private final Set<Model> enriched = Collections.newSetFromMap(new MapMaker().weakKeys()
+                                                                                .<Model, Boolean>makeMap());
+
+    public DefinitionEnricher(boolean withRules) {
+        this.withRules = withRules;
+    }
+
+    /**
+     * @param swagger
+     * @param type    schema对应的类型
+     * @param schema  请求体或响应的schema
+     */
+    public void enrich(Swagger swagger, Type type, Model schema) {
+        ResolvableType resolvableType = ResolvableType.forType(type);
+        if (schema instanceof RefModel) {
+            this.enrich(swagger, resolvableType, ((RefModel) schema).getSimpleRef());
+        } else if (schema instanceof ArrayModel) {
+            this.enrich(swagger, getElementType(resolvableType), ((ArrayModel) schema).getItems());
+        } else if (schema instanceof ModelImpl) {
+            this.enrich(swagger, resolvableType, (ModelImpl) schema);
+        }
+    }
+
+    private void enrich(Swagger swagger, ResolvableType type, Property property) {
+        if (property instanceof RefProperty) {
+            this.enrich(swagger, type, ((RefProperty) property).getSimpleRef());
+        } else if (property instanceof ArrayProperty) {
+            this.enrich(swagger, getElementType(type), ((ArrayProperty) property).getItems());
+        } else if (property instanceof MapProperty) {
+            this.enrich(swagger, type.asMap()
+                                     .getGeneric(1), ((MapProperty) property).getAdditionalProperties());
+        }
+    }
+
+    private void enrich(Swagger swagger, ResolvableType type, String definition) {
+        if (StringUtils.isBlank(definition) || swagger.getDefinitions() == null) {
+            return;
+        }
+        Model model = swagger.getDefinitions()
+                             .get(definition);
+        if (model instanceof ModelImpl) {
+            this.enrich(swagger, type, (ModelImpl) model);
+        }
+    }
+
+    private void enrich(Swagger swagger, ResolvableType type, ModelImpl model) {
+        Map<String, Property> properties = model.getProperties();
+        if (properties == null) {
+            // Map类型的请求体
+            if (model.getAdditionalProperties() != null) {
+                this.enrich(swagger, type.asMap()
+                                         .getGeneric(1), model.getAdditionalProperties());
+            }
+            return;
+        }
+
+        Class<?> cls = type.resolve();
+        if (cls == null || cls == Object.class || !this.enriched.add(model)) {
+            return;
+        }
+
+        ValidationPlan plan = this.getPlan(cls);
+        Map<String, List> rules = new HashMap<>();
+        for (Map.Entry<String, Property> entry : properties.entrySet()) {
+            ValidationPlan.FieldPlan field = plan.getField(entry.getKey());
+            if (field == null) {
+                continue;
+            }
+
+            Property property = entry.getValue();
+            if (StringUtils.isBlank(property.getDescription())) {
+                property.setDescription(field.getComment()); //设置注释
+            }
+
+            if (field.getRules() != null) {
+                rules.put(entry.getKey(), field.getRules());
+            }
+
+            // 嵌套的模型
+            this.enrich(swagger, ResolvableType.forField(field.getField(), type), property);
+        }
+
+        if (!this.withRules || rules.isEmpty()) {
+            return;
+        }
+        model.setVendorExtension("x-rules", rules);
+    }
+
+    private ValidationPlan getPlan(Class<?> type) {
+        ValidationPlan plan = this.plans.get(type);
+        if (plan == null) {
+            plan = ValidationPlan.compile(type, ValidationTransformRegistry.getInstance());
+            this.plans.put(type, plan);
+        }
+        return plan;
+    }
+
+    private static ResolvableType getElementType(ResolvableType type) {
+        return type.isArray() ? type.getComponentType() : type.asCollection()
+                                                              .getGeneric(0);
+    }
+}
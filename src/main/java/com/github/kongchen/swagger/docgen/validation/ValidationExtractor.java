@@ -3,11 +3,13 @@ package com.github.kongchen.swagger.docgen.validation;
 import io.swagger.models.Swagger;
 import io.swagger.models.parameters.BodyParameter;
 
+import java.lang.reflect.Type;
+
 public interface ValidationExtractor {
 
     /**
-     * @param clazz
+     * @param type 请求体的类型, 可以是泛型类型
      * @param bodyParameter
      */
-    void extract(Swagger swagger, Class clazz, BodyParameter bodyParameter);
+    void extract(Swagger swagger, Type type, BodyParameter bodyParameter);
 }
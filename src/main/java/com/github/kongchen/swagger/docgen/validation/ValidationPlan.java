@@ -0,0 +1,94 @@
+package com.github.kongchen.swagger.docgen.validation;
+
+import com.github.kongchen.swagger.docgen.doc.JavaDoc;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * 一个类的验证规则
+ * <p>
+ * 每个类只反射一次字段, 匹配的ValidationTransform和生成的规则都预先计算好,
+ * 同一个类在多个接口中使用时只需按属性名查找.
+ */
+final class ValidationPlan {
+
+    private final Map<String, FieldPlan> fields;
+
+    private ValidationPlan(Map<String, FieldPlan> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * @param type
+     * @param transforms
+     * @return
+     */
+    static ValidationPlan compile(Class<?> type, ValidationTransformRegistry transforms) {
+        Map<String, FieldPlan> fields = new HashMap<>();
+        // 与ReflectionUtils.findField一致, 子类的字段优先
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!fields.containsKey(field.getName())) {
+                    fields.put(field.getName(), compile(field, type, transforms));
+                }
+            }
+        }
+        return new ValidationPlan(fields);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FieldPlan compile(Field field, Class<?> type, ValidationTransformRegistry transforms) {
+        List<Map> rules = new ArrayList<>();
+        // 只按字段上实际存在的注解查找
+        for (Annotation annotation : field.getAnnotations()) {
+            for (Annotation constraint : transforms.resolve(annotation)) {
+                Map map = transforms.get(constraint.annotationType())
+                                    .transform(constraint, field, type);
+                if (map != null) {
+                    rules.add(map);
+                }
+            }
+        }
+        return new FieldPlan(field, rules.isEmpty() ? null : rules);
+    }
+
+    /**
+     * @param propertyName
+     * @return 没有对应的字段时返回null
+     */
+    FieldPlan getField(String propertyName) {
+        return fields.get(propertyName);
+    }
+
+    static final class FieldPlan {
+        private final Field field;
+
+        private final List<Map> rules;
+
+        FieldPlan(Field field, List<Map> rules) {
+            this.field = field;
+            this.rules = rules;
+        }
+
+        Field getField() {
+            return field;
+        }
+
+        /**
+         * 只在属性没有描述时才需要, JavaDoc按字段缓存
+         */
+        String getComment() {
+            return JavaDoc.getInstance()
+                          .getFieldName(field);
+        }
+
+        /**
+         * @return 没有验证注解时返回null
+         */
+        List<Map> getRules() {
+            return rules;
+        }
+    }
+}
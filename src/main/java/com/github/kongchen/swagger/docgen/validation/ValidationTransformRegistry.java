@@ -0,0 +1,108 @@
+package com.github.kongchen.swagger.docgen.validation;
+
+import com.github.kongchen.swagger.docgen.validation.transform.*;
+
+import javax.validation.Constraint;
+import java.lang.annotation.Annotation;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ValidationTransform注册表
+ * <p>
+ * 内置javax和hibernate的常用约束, 再通过ServiceLoader加载自定义的实现.
+ * 按字段上实际存在的注解查找转换, 组合约束(标注了@Constraint的自定义注解)展开为其上的元约束.
+ */
+public final class ValidationTransformRegistry {
+    private static final ValidationTransformRegistry instance = new ValidationTransformRegistry();
+
+    public static ValidationTransformRegistry getInstance() {
+        return instance;
+    }
+
+    private final Map<Class<?>, ValidationTransform> transforms = new ConcurrentHashMap<>();
+
+    /**
+     * 注解类型 -> 展开后有转换的约束, 没有约束时为空列表
+     */
+    private final Map<Class<? extends Annotation>, List<Annotation>> constraints = new ConcurrentHashMap<>();
+
+    private ValidationTransformRegistry() {
+        this.register(new NotBlankTransform());
+        this.register(new NotNullTransform());
+        this.register(new PatternTransform());
+        this.register(new SizeTransform());
+        this.register(new MinTransform());
+        this.register(new MaxTransform());
+        this.register(new DecimalMinTransform());
+        this.register(new DecimalMaxTransform());
+        this.register(new DigitsTransform());
+        this.register(new EmailTransform());
+        this.register(new PositiveTransform());
+        this.register(new PositiveOrZeroTransform());
+        this.register(new NegativeTransform());
+        this.register(new NegativeOrZeroTransform());
+        this.register(new HibernateRangeTransform());
+        this.register(new HibernateLengthTransform());
+        this.register(new HibernateNotBlankTransform());
+
+        for (ValidationTransform transform : ServiceLoader.load(ValidationTransform.class,
+                ValidationTransformRegistry.class.getClassLoader())) {
+            this.register(transform);
+        }
+    }
+
+    /**
+     * 注册转换, 同一个注解后注册的覆盖先注册的
+     *
+     * @param transform
+     */
+    public void register(ValidationTransform transform) {
+        Class<?> annotationType = transform.getAnnotationType();
+        if (annotationType == null || !annotationType.isAnnotation()) {
+            throw new IllegalArgumentException("Cannot resolve annotation type of " + transform.getClass()
+                                                                                               .getName());
+        }
+        this.transforms.put(annotationType, transform);
+        this.constraints.clear();
+    }
+
+    public ValidationTransform get(Class<? extends Annotation> annotationType) {
+        return this.transforms.get(annotationType);
+    }
+
+    /**
+     * @param annotation 字段上的注解
+     * @return 有转换的约束: 注解本身, 或者组合约束上的元约束; 都没有时为空列表
+     */
+    public List<Annotation> resolve(Annotation annotation) {
+        if (this.transforms.containsKey(annotation.annotationType())) {
+            return Collections.singletonList(annotation);
+        }
+        return this.getComposedConstraints(annotation.annotationType());
+    }
+
+    private List<Annotation> getComposedConstraints(Class<? extends Annotation> annotationType) {
+        List<Annotation> result = this.constraints.get(annotationType);
+        if (result == null) {
+            List<Annotation> composed = new ArrayList<>();
+            this.collect(annotationType, composed, new HashSet<Class<?>>());
+            result = composed.isEmpty() ? Collections.<Annotation>emptyList() : Collections.unmodifiableList(composed);
+            this.constraints.put(annotationType, result);
+        }
+        return result;
+    }
+
+    private void collect(Class<? extends Annotation> annotationType, List<Annotation> result, Set<Class<?>> visited) {
+        if (!visited.add(annotationType) || !annotationType.isAnnotationPresent(Constraint.class)) {
+            return;
+        }
+        for (Annotation meta : annotationType.getAnnotations()) {
+            if (this.transforms.containsKey(meta.annotationType())) {
+                result.add(meta);
+            } else {
+                this.collect(meta.annotationType(), result, visited);
+            }
+        }
+    }
+}
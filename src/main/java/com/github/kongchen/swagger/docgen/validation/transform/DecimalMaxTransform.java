@@ -0,0 +1,21 @@
+package com.github.kongchen.swagger.docgen.validation.transform;
+
+import javax.validation.constraints.DecimalMax;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+public class DecimalMaxTransform extends ValidationTransform<DecimalMax> {
+
+    @Override
+    public Map transform(DecimalMax a, Field field, Class clazz) {
+        Map map = new HashMap();
+        map.put("max", new BigDecimal(a.value()));
+        if (!a.inclusive()) {
+            map.put("exclusiveMax", true);
+        }
+        map.put("message", a.message());
+        return map;
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.kongchen.swagger.docgen.validation.transform;
+
+import javax.validation.constraints.DecimalMin;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+public class DecimalMinTransform extends ValidationTransform<DecimalMin> {
+
+    @Override
+    public Map transform(DecimalMin a, Field field, Class clazz) {
+        Map map = new HashMap();
+        map.put("min", new BigDecimal(a.value()));
+        if (!a.inclusive()) {
+            map.put("exclusiveMin", true);
+        }
+        map.put("message", a.message());
+        return map;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.kongchen.swagger.docgen.validation.transform;
+
+import javax.validation.constraints.Digits;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+public class DigitsTransform extends ValidationTransform<Digits> {
+
+    @Override
+    public Map transform(Digits a, Field field, Class clazz) {
+        Map map = new HashMap();
+        map.put("pattern", "^-?\\d{0," + a.integer() + "}(\\.\\d{0," + a.fraction() + "})?$");
+        map.put("message", a.message());
+        return map;
+    }
+}
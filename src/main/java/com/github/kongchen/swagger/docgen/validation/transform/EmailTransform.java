@@ -0,0 +1,20 @@
+package com.github.kongchen.swagger.docgen.validation.transform;
+
+import javax.validation.constraints.Email;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+public class EmailTransform extends ValidationTransform<Email> {
+
+    @Override
+    public Map transform(Email a, Field field, Class clazz) {
+        Map map = new HashMap();
+        map.put("type", "email");
+        if (!".*".equals(a.regexp())) {
+            map.put("pattern", a.regexp());
+        }
+        map.put("message", a.message());
+        return map;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.kongchen.swagger.docgen.validation.transform;
+
+import javax.validation.constraints.Max;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+public class MaxTransform extends ValidationTransform<Max> {
+
+    @Override
+    public Map transform(Max a, Field field, Class clazz) {
+        Map map = new HashMap();
+        map.put("max", a.value());
+        map.put("message", a.message());
+        return map;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.kongchen.swagger.docgen.validation.transform;
+
+import javax.validation.constraints.Min;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+public class MinTransform extends ValidationTransform<Min> {
+
+    @Override
+    public Map transform(Min a, Field field, Class clazz) {
+        Map map = new HashMap();
+        map.put("min", a.value());
+        map.put("message", a.message());
+        return map;
+    }
+}
@@ -0,0 +1,17 @@
+package com.github.kongchen.swagger.docgen.validation.transform;
+
+import javax.validation.constraints.NegativeOrZero;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+public class NegativeOrZeroTransform extends ValidationTransform<NegativeOrZero> {
+
+    @Override
+    public Map transform(NegativeOrZero a, Field field, Class clazz) {
+        Map map = new HashMap();
+        map.put("max", 0);
+        map.put("message", a.message());
+        return map;
+    }
+}
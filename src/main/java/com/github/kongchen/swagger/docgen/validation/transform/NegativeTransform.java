@@ -0,0 +1,18 @@
+package com.github.kongchen.swagger.docgen.validation.transform;
+
+import javax.validation.constraints.Negative;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+public class NegativeTransform extends ValidationTransform<Negative> {
+
+    @Override
+    public Map transform(Negative a, Field field, Class clazz) {
+        Map map = new HashMap();
+        map.put("max", 0);
+        map.put("exclusiveMax", true);
+        map.put("message", a.message());
+        return map;
+    }
+}
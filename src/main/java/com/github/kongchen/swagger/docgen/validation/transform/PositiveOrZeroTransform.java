@@ -0,0 +1,17 @@
+package com.github.kongchen.swagger.docgen.validation.transform;
+
+import javax.validation.constraints.PositiveOrZero;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PositiveOrZeroTransform extends ValidationTransform<PositiveOrZero> {
+
+    @Override
+    public Map transform(PositiveOrZero a, Field field, Class clazz) {
+        Map map = new HashMap();
+        map.put("min", 0);
+        map.put("message", a.message());
+        return map;
+    }
+}
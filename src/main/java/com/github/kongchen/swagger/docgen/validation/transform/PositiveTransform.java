@@ -0,0 +1,18 @@
+package com.github.kongchen.swagger.docgen.validation.transform;
+
+import javax.validation.constraints.Positive;
+import java.lang.reflect.Field;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PositiveTransform extends ValidationTransform<Positive> {
+
+    @Override
+    public Map transform(Positive a, Field field, Class clazz) {
+        Map map = new HashMap();
+        map.put("min", 0);
+        map.put("exclusiveMin", true);
+        map.put("message", a.message());
+        return map;
+    }
+}
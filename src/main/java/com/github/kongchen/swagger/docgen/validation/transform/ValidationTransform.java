@@ -1,9 +1,26 @@
 package com.github.kongchen.swagger.docgen.validation.transform;
 
+import org.springframework.core.GenericTypeResolver;
+
 import java.lang.reflect.Field;
 import java.util.Map;
 
+/**
+ * 验证注解 -> 验证规则
+ * <p>
+ * 自定义的实现通过META-INF/services/com.github.kongchen.swagger.docgen.validation.transform.ValidationTransform注册,
+ * 与内置实现处理同一个注解时覆盖内置实现.
+ *
+ * @param <T> 处理的注解
+ */
 public abstract class ValidationTransform<T> {
 
     public abstract Map transform(T a, Field field, Class clazz);
+
+    /**
+     * @return 处理的注解类型, 默认取泛型参数
+     */
+    public Class<?> getAnnotationType() {
+        return GenericTypeResolver.resolveTypeArgument(this.getClass(), ValidationTransform.class);
+    }
 }
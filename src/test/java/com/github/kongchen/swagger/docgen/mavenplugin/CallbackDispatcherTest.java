@@ -0,0 +1,219 @@
+package com.github.kongchen.swagger.docgen.mavenplugin;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * 回调发送的重试, 重定向, 截止时间和并发上限, 使用进程内的HTTP服务
+ */
+public class CallbackDispatcherTest {
+
+    private HttpServer server;
+
+    private ExecutorService serverExecutor;
+
+    private File file;
+
+    private List<String> messages;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        file = File.createTempFile("swagger-callback", ".json");
+        Files.write(file.toPath(), "{\"swagger\":\"2.0\"}".getBytes("UTF-8"));
+        messages = Collections.synchronizedList(new ArrayList<String>());
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        file.delete();
+    }
+
+    @Test
+    public void shouldRetryOnServerError() {
+        AtomicInteger requests = respond("/callback", 503, 0);
+
+        dispatcher(2, 30000).dispatch(callbacks("/callback"), Collections.singletonList(file));
+
+        assertEquals(requests.get(), 3);
+        assertLogged("responded 503");
+    }
+
+    @Test
+    public void shouldNotRetryOnClientError() {
+        AtomicInteger requests = respond("/callback", 404, 0);
+
+        dispatcher(2, 30000).dispatch(callbacks("/callback"), Collections.singletonList(file));
+
+        assertEquals(requests.get(), 1);
+        assertLogged("responded 404");
+    }
+
+    @Test
+    public void shouldNotFollowRedirect() {
+        final AtomicInteger requests = new AtomicInteger();
+        server.createContext("/callback", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                consume(exchange);
+                exchange.getResponseHeaders()
+                        .add("Location", "/moved");
+                exchange.sendResponseHeaders(302, -1);
+                exchange.close();
+            }
+        });
+        AtomicInteger redirected = respond("/moved", 200, 0);
+
+        dispatcher(2, 30000).dispatch(callbacks("/callback"), Collections.singletonList(file));
+
+        assertEquals(requests.get(), 1);
+        assertEquals(redirected.get(), 0);
+        assertLogged("responded 302");
+    }
+
+    @Test
+    public void shouldStopWaitingAtDeadline() {
+        AtomicInteger requests = respond("/callback", 200, 5000);
+
+        long start = System.currentTimeMillis();
+        dispatcher(0, 300).dispatch(callbacks("/callback"), Collections.singletonList(file));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(requests.get(), 1);
+        assertTrue(elapsed < 3000, "dispatch returned after " + elapsed + " ms");
+        assertLogged("did not finish within 300 ms");
+    }
+
+    @Test
+    public void shouldLimitConcurrentRequests() {
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        server.createContext("/callback", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int current = active.incrementAndGet();
+                synchronized (maxActive) {
+                    maxActive.set(Math.max(maxActive.get(), current));
+                }
+                try {
+                    consume(exchange);
+                    Thread.sleep(200);
+                    exchange.sendResponseHeaders(200, -1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                          .interrupt();
+                } finally {
+                    active.decrementAndGet();
+                    exchange.close();
+                }
+            }
+        });
+        List<String> callbacks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            callbacks.add(url("/callback?i=" + i));
+        }
+
+        dispatcher(0, 30000).dispatch(callbacks, Collections.singletonList(file));
+
+        assertTrue(maxActive.get() > 1, "callbacks were not sent concurrently");
+        assertTrue(maxActive.get() <= 16, maxActive.get() + " callbacks were sent at once");
+    }
+
+    private CallbackDispatcher dispatcher(int retries, long deadline) {
+        return new CallbackDispatcher(new SystemStreamLog() {
+            @Override
+            public void debug(CharSequence content) {
+            }
+
+            @Override
+            public void info(CharSequence content) {
+                messages.add(content.toString());
+            }
+
+            @Override
+            public void warn(CharSequence content) {
+                messages.add(content.toString());
+            }
+        }, 10000, retries, deadline, false);
+    }
+
+    private void assertLogged(String message) {
+        synchronized (messages) {
+            for (String logged : messages) {
+                if (logged.contains(message)) {
+                    return;
+                }
+            }
+        }
+        throw new AssertionError("Expected a log containing '" + message + "' in " + messages);
+    }
+
+    private List<String> callbacks(String path) {
+        return Collections.singletonList(url(path));
+    }
+
+    private String url(String path) {
+        return "http://" + server.getAddress()
+                                 .getHostString() + ":" + server.getAddress()
+                                                               .getPort() + path;
+    }
+
+    /**
+     * @param status 响应状态
+     * @param delay  响应前等待的时间(毫秒)
+     * @return 收到的请求数
+     */
+    private AtomicInteger respond(String path, final int status, final long delay) {
+        final AtomicInteger requests = new AtomicInteger();
+        server.createContext(path, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requests.incrementAndGet();
+                try {
+                    consume(exchange);
+                    if (delay > 0) {
+                        Thread.sleep(delay);
+                    }
+                    exchange.sendResponseHeaders(status, -1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread()
+                          .interrupt();
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        return requests;
+    }
+
+    private static void consume(HttpExchange exchange) throws IOException {
+        IOUtils.toByteArray(exchange.getRequestBody());
+    }
+}
@@ -0,0 +1,245 @@
+package com.github.kongchen.swagger.docgen.scan;
+
+import org.apache.commons.io.IOUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.testng.Assert.*;
+
+/**
+ * 中央目录解析与JarFile的结果一致, 不支持的格式返回null由调用方回退到JarFile
+ */
+public class MappedJarTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final List<File> files = new ArrayList<>();
+
+    private MappedJar.Cache cache;
+
+    @BeforeMethod
+    public void setUp() {
+        cache = new MappedJar.Cache();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        cache.release();
+        for (File file : files) {
+            file.delete();
+        }
+        files.clear();
+    }
+
+    @Test
+    public void shouldListTheSameClassesAsJarFile() throws IOException {
+        File jar = createJar(null);
+
+        MappedJar mappedJar = cache.get(jar);
+
+        assertNotNull(mappedJar);
+        assertSameAsJarFile(jar, mappedJar);
+    }
+
+    @Test
+    public void shouldFindEndRecordBeforeArchiveComment() throws IOException {
+        File jar = createJar("built by a test\nwith a multi-line comment");
+
+        MappedJar mappedJar = cache.get(jar);
+
+        assertNotNull(mappedJar);
+        assertSameAsJarFile(jar, mappedJar);
+    }
+
+    @Test
+    public void shouldIgnoreEndSignatureInsideArchiveComment() throws IOException {
+        // 注释中出现PK\5\6, 从后向前查找时先遇到它
+        File jar = createJar("PK\u0005\u0006 looks like an end record");
+
+        MappedJar mappedJar = cache.get(jar);
+
+        assertNotNull(mappedJar);
+        assertSameAsJarFile(jar, mappedJar);
+    }
+
+    @Test
+    public void shouldReuseMappingUntilReleased() throws IOException {
+        File jar = createJar(null);
+
+        MappedJar mappedJar = cache.get(jar);
+
+        assertSame(cache.get(jar), mappedJar);
+        cache.release();
+        MappedJar remapped = cache.get(jar);
+        assertNotSame(remapped, mappedJar);
+        assertSameAsJarFile(jar, remapped);
+    }
+
+    @Test
+    public void shouldFallBackForZip64() throws IOException {
+        // 超过65535个条目时ZipOutputStream写出zip64的结束记录
+        File jar = newFile();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            out.setLevel(0);
+            for (int i = 0; i < 0x10000 + 1; i++) {
+                out.putNextEntry(new ZipEntry("p/C" + i + ".class"));
+                out.closeEntry();
+            }
+        }
+
+        assertNull(cache.get(jar));
+        try (JarFile jarFile = new JarFile(jar)) {
+            assertEquals(getClassNames(jarFile).size(), 0x10000 + 1);
+        }
+    }
+
+    @Test
+    public void shouldFallBackForZip64Marker() throws IOException {
+        File jar = createJar(null);
+        byte[] bytes = Files.readAllBytes(jar.toPath());
+        // 结束记录中的中央目录偏移为0xFFFFFFFF, 真实值在zip64结束记录中
+        int end = bytes.length - 22;
+        assertEquals(readInt(bytes, end), 0x06054b50);
+        bytes[end + 16] = bytes[end + 17] = bytes[end + 18] = bytes[end + 19] = (byte) 0xFF;
+        Files.write(jar.toPath(), bytes);
+
+        assertNull(cache.get(jar));
+    }
+
+    @Test
+    public void shouldFallBackForTruncatedJar() throws IOException {
+        File jar = createJar(null);
+        byte[] bytes = Files.readAllBytes(jar.toPath());
+        Files.write(jar.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertNull(cache.get(jar));
+    }
+
+    @Test
+    public void shouldFallBackForCorruptCentralDirectory() throws IOException {
+        File jar = createJar(null);
+        byte[] bytes = Files.readAllBytes(jar.toPath());
+        int offset = readInt(bytes, bytes.length - 22 + 16);
+        bytes[offset] = 0;
+        Files.write(jar.toPath(), bytes);
+
+        assertNull(cache.get(jar));
+    }
+
+    @Test
+    public void shouldFallBackForJarOver2GB() throws IOException {
+        File jar = newFile();
+        try (RandomAccessFile file = new RandomAccessFile(jar, "rw")) {
+            file.setLength(Integer.MAX_VALUE + 1L);
+        }
+
+        assertNull(cache.get(jar));
+    }
+
+    /**
+     * 包含deflate和store的class条目, 目录, 嵌套类以及非class文件
+     */
+    private File createJar(String comment) throws IOException {
+        File jar = newFile();
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            if (comment != null) {
+                out.setComment(comment);
+            }
+            write(out, "META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes(UTF_8), false);
+            out.putNextEntry(new ZipEntry("com/example/"));
+            out.closeEntry();
+            write(out, "com/example/Deflated.class", content("deflated"), false);
+            write(out, "com/example/Stored.class", content("stored"), true);
+            write(out, "com/example/Outer$Inner.class", content("inner"), false);
+            write(out, "com/example/package-info.class", content("package"), false);
+            write(out, "com/example/readme.txt", "not a class".getBytes(UTF_8), false);
+            write(out, "com/example/中文.class", content("utf-8 name"), false);
+        }
+        return jar;
+    }
+
+    private File newFile() throws IOException {
+        File file = File.createTempFile("mapped-jar", ".jar");
+        files.add(file);
+        return file;
+    }
+
+    private static void write(ZipOutputStream out, String name, byte[] bytes, boolean stored) throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(bytes.length);
+            entry.setCompressedSize(bytes.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(bytes);
+        out.closeEntry();
+    }
+
+    private static byte[] content(String seed) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append(seed)
+              .append(i);
+        }
+        return sb.toString()
+                 .getBytes(UTF_8);
+    }
+
+    private static void assertSameAsJarFile(File jar, MappedJar mappedJar) throws IOException {
+        try (JarFile jarFile = new JarFile(jar)) {
+            Map<String, byte[]> expected = new TreeMap<>();
+            for (String name : getClassNames(jarFile)) {
+                try (InputStream in = jarFile.getInputStream(jarFile.getEntry(name))) {
+                    expected.put(name, IOUtils.toByteArray(in));
+                }
+            }
+
+            Map<String, byte[]> actual = new TreeMap<>();
+            for (MappedJar.Entry entry : mappedJar.getClassEntries()) {
+                actual.put(entry.getName(), mappedJar.read(entry));
+            }
+
+            assertEquals(actual.keySet(), expected.keySet());
+            for (String name : expected.keySet()) {
+                assertEquals(actual.get(name), expected.get(name), name);
+            }
+        }
+    }
+
+    private static List<String> getClassNames(JarFile jarFile) {
+        List<String> names = new ArrayList<>();
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry entry = entries.nextElement();
+            if (!entry.isDirectory() && entry.getName()
+                                             .endsWith(".class")) {
+                names.add(entry.getName());
+            }
+        }
+        return names;
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xFF) | (bytes[offset + 1] & 0xFF) << 8 | (bytes[offset + 2] & 0xFF) << 16
+                | (bytes[offset + 3] & 0xFF) << 24;
+    }
+}